@@ -0,0 +1,80 @@
+package com.ccexid.core.codec;
+
+import com.ccexid.core.model.HandleCallbackParam;
+import com.ccexid.core.model.TriggerParam;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编解码基准测试：{@link BinaryJobCodec} 与 {@link JdkJobCodec}
+ * <ul>
+ *     <li>callbacks：100条回调参数，即一次回调批量写入WAL的内容</li>
+ *     <li>trigger：单个触发参数</li>
+ * </ul>
+ * 编码后的字节数在每组参数开始时输出。
+ * <p>
+ * java -jar benchmarks.jar JobCodecBenchmark
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JobCodecBenchmark {
+
+    @Param({"binary", "jdk"})
+    public String codec;
+
+    @Param({"callbacks", "trigger"})
+    public String payload;
+
+    private JobCodec jobCodec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        jobCodec = "binary".equals(codec) ? new BinaryJobCodec() : new JdkJobCodec();
+        if ("callbacks".equals(payload)) {
+            List<Object> callbacks = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                callbacks.add(new HandleCallbackParam(1_000_000L + i, 1760000000000L + i, 200,
+                        i % 10 == 0 ? "任务执行失败 error at line " + i : null));
+            }
+            value = callbacks;
+        } else {
+            value = new TriggerParam(12, "demoJobHandler", "a=1&b=2", "SERIAL_EXECUTION", 30,
+                    9_999_999L, 1760000000000L, "BEAN", null, 0, 0, 1);
+        }
+        encoded = jobCodec.encode(value);
+        System.out.println("encoded size: " + codec + " " + payload + " " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return jobCodec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return jobCodec.decode(encoded);
+    }
+}
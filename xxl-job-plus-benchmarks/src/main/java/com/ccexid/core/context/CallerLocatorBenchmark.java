@@ -0,0 +1,66 @@
+package com.ccexid.core.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务日志调用位置定位基准测试：{@link CallerLocator} 与此前每行日志填充完整异常堆栈的实现
+ * 调用栈深度模拟 Spring 代理、线程池等包装下的业务方法
+ * <p>
+ * java -jar benchmarks.jar CallerLocatorBenchmark
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CallerLocatorBenchmark {
+
+    @Param({"5", "30", "60", "120"})
+    public int depth;
+
+    @Benchmark
+    public int stackWalker() {
+        return stackWalker(depth);
+    }
+
+    @Benchmark
+    public int throwable() {
+        return throwable(depth);
+    }
+
+    private int stackWalker(int remaining) {
+        if (remaining > 0) {
+            return stackWalker(remaining - 1);
+        }
+        StringBuilder sb = new StringBuilder(128);
+        CallerLocator.appendCaller(sb);
+        return sb.length();
+    }
+
+    private int throwable(int remaining) {
+        if (remaining > 0) {
+            return throwable(remaining - 1);
+        }
+        // the previous JobPlusHelper.log: full stack trace, caller at [1]
+        StackTraceElement callInfo = new Throwable().getStackTrace()[1];
+        StringBuffer sb = new StringBuffer();
+        sb.append("[").append(callInfo.getClassName()).append("#").append(callInfo.getMethodName()).append("]").append("-")
+                .append("[").append(callInfo.getLineNumber()).append("]").append("-");
+        return sb.length();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ccexid.core.handler.impl;
+
+import com.ccexid.core.context.JobPlusContext;
+import com.ccexid.core.context.JobPlusHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方法作业调用基准测试：{@link MethodJobHandler} 绑定的 MethodHandle 与此前的反射调用
+ * <ul>
+ *     <li>reflection：此前的实现，Method.invoke 且参数全部传null</li>
+ *     <li>reflectionWithParam：反射调用并从任务上下文读取触发参数，与当前实现做同样的工作</li>
+ * </ul>
+ * java -jar benchmarks.jar MethodJobHandlerBenchmark
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodJobHandlerBenchmark {
+
+    @Param({"noArg", "stringParam"})
+    public String method;
+
+    private Job target;
+    private Method targetMethod;
+    private MethodJobHandler handler;
+
+    @Setup
+    public void setup() throws Exception {
+        target = new Job();
+        targetMethod = "noArg".equals(method) ? Job.class.getMethod("noArg") : Job.class.getMethod("stringParam", String.class);
+        handler = new MethodJobHandler(target, targetMethod, null, null);
+        JobPlusContext.setJobContext(new JobPlusContext(1, "shard=1", null, 0, 1));
+    }
+
+    @Benchmark
+    public long methodHandle() throws Exception {
+        handler.execute();
+        return target.count;
+    }
+
+    @Benchmark
+    public long reflection() throws Exception {
+        Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+        if (parameterTypes.length > 0) {
+            targetMethod.invoke(target, new Object[parameterTypes.length]);
+        } else {
+            targetMethod.invoke(target);
+        }
+        return target.count;
+    }
+
+    @Benchmark
+    public long reflectionWithParam() throws Exception {
+        Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+        if (parameterTypes.length > 0) {
+            Object[] args = new Object[parameterTypes.length];
+            args[0] = JobPlusHelper.getJobParam();
+            targetMethod.invoke(target, args);
+        } else {
+            targetMethod.invoke(target);
+        }
+        return target.count;
+    }
+
+    public static class Job {
+        long count;
+
+        public void noArg() {
+            count++;
+        }
+
+        public void stringParam(String param) {
+            if (param != null) {
+                count++;
+            }
+        }
+    }
+}
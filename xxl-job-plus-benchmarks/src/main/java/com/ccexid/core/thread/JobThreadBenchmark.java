@@ -0,0 +1,153 @@
+package com.ccexid.core.thread;
+
+import com.ccexid.core.executor.JobExecutor;
+import com.ccexid.core.handler.AbstractJobHandler;
+import com.ccexid.core.log.JobLogFileAppender;
+import com.ccexid.core.model.TriggerParam;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 作业线程基准测试：平台线程与虚拟线程
+ * 注册 jobs 个作业，并为每个作业推送一次限时触发（触发在作业线程上执行并由超时看门狗监控），等待全部回调入队。
+ * 得分为单次注册加触发的耗时；辅助计数器为注册后存活的平台线程数、NMT统计的线程已提交内存（KB）及进程RSS（KB，仅Linux）。
+ * <p>
+ * 虚拟线程需在 JDK 21+ 上运行，低版本回退为平台线程。计数器为单次迭代的取值，因此只做一次测量迭代：
+ * java -jar benchmarks.jar JobThreadBenchmark
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:NativeMemoryTracking=summary")
+@State(Scope.Benchmark)
+public class JobThreadBenchmark {
+
+    private static final Pattern NMT_THREAD_COMMITTED = Pattern.compile("Thread \\(reserved=\\d+KB, committed=(\\d+)KB\\)");
+
+    @Param({"false", "true"})
+    public boolean virtual;
+
+    @Param({"3000"})
+    public int jobs;
+
+    private int baselineThreads;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        JobLogFileAppender.initLogPath(Files.createTempDirectory("job-thread-benchmark").toString());
+        JobThreadFactory.getInstance().init(virtual);
+        baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeJobs() throws InterruptedException {
+        for (int jobId = 1; jobId <= jobs; jobId++) {
+            JobExecutor.removeJobThread(jobId, "benchmark iteration end");
+        }
+        // let stopped platform threads exit before the next iteration counts them
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (ManagementFactory.getThreadMXBean().getThreadCount() > baselineThreads + 16
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Benchmark
+    public void registerAndTrigger(Footprint footprint) throws Exception {
+        int callbacksBefore = TriggerCallbackThread.getInstance().getQueuedCount();
+        for (int jobId = 1; jobId <= jobs; jobId++) {
+            JobExecutor.registerJobHandler(jobId, new SleepJobHandler(), null);
+        }
+        for (int jobId = 1; jobId <= jobs; jobId++) {
+            TriggerParam triggerParam = new TriggerParam();
+            triggerParam.setJobId(jobId);
+            triggerParam.setLogId(jobId);
+            triggerParam.setLogDateTime(System.currentTimeMillis());
+            triggerParam.setExecutorTimeout(10);
+            triggerParam.setExecutorBlockStrategy("SERIAL_EXECUTION");
+            JobExecutor.loadJobThread(jobId).pushTriggerQueue(triggerParam);
+        }
+        while (TriggerCallbackThread.getInstance().getQueuedCount() - callbacksBefore < jobs) {
+            Thread.sleep(1);
+        }
+        footprint.platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        footprint.threadCommittedKb = nmtThreadCommittedKb();
+        footprint.rssKb = rssKb();
+    }
+
+    /**
+     * 注册并触发后的资源占用
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long platformThreads;
+        public long threadCommittedKb;
+        public long rssKb;
+    }
+
+    private static final class SleepJobHandler extends AbstractJobHandler {
+        @Override
+        public void execute() throws Exception {
+            Thread.sleep(5);
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static long nmtThreadCommittedKb() {
+        try {
+            String summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmNativeMemory",
+                    new Object[]{new String[]{"summary", "scale=KB"}}, new String[]{String[].class.getName()});
+            Matcher matcher = NMT_THREAD_COMMITTED.matcher(summary);
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+        } catch (Exception e) {
+            // not a HotSpot jvm, or NMT off
+            return -1;
+        }
+    }
+
+    private static long rssKb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (Exception e) {
+            // not linux
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ccexid.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 触发日志ID集合基准测试：{@link ConcurrentLongHashSet} 与此前使用的 Collections.synchronizedSet(HashSet&lt;Long&gt;)
+ * 每次操作模拟一次触发的生命周期：入队时 contains + add，执行时 remove；各线程使用互不重叠的日志ID，集合中常驻 resident 个日志ID。
+ * <p>
+ * 默认4个线程，竞争程度通过 -t 调整，分配通过 -prof gc 查看：
+ * java -jar benchmarks.jar ConcurrentLongHashSetBenchmark -t 1 -prof gc
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentLongHashSetBenchmark {
+
+    @Param({"synchronizedSet", "concurrentLongHashSet"})
+    public String impl;
+
+    @Param({"1024"})
+    public int resident;
+
+    private LogIdSet set;
+
+    @Setup
+    public void setup() {
+        if ("synchronizedSet".equals(impl)) {
+            Set<Long> delegate = Collections.synchronizedSet(new HashSet<>());
+            set = new LogIdSet() {
+                @Override
+                public boolean add(long logId) {
+                    return delegate.add(logId);
+                }
+
+                @Override
+                public boolean contains(long logId) {
+                    return delegate.contains(logId);
+                }
+
+                @Override
+                public boolean remove(long logId) {
+                    return delegate.remove(logId);
+                }
+            };
+        } else {
+            ConcurrentLongHashSet delegate = new ConcurrentLongHashSet();
+            set = new LogIdSet() {
+                @Override
+                public boolean add(long logId) {
+                    return delegate.add(logId);
+                }
+
+                @Override
+                public boolean contains(long logId) {
+                    return delegate.contains(logId);
+                }
+
+                @Override
+                public boolean remove(long logId) {
+                    return delegate.remove(logId);
+                }
+            };
+        }
+        for (long logId = 1; logId <= resident; logId++) {
+            set.add(-logId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadLogIds {
+        long next;
+
+        @Setup
+        public void setup(ThreadParams threadParams) {
+            // disjoint id ranges per thread, like triggers of different jobs
+            next = (long) threadParams.getThreadIndex() << 40;
+        }
+    }
+
+    @Benchmark
+    public boolean trigger(ThreadLogIds ids) {
+        long logId = ++ids.next;
+        if (set.contains(logId)) {
+            return false;
+        }
+        set.add(logId);
+        return set.remove(logId);
+    }
+
+    private interface LogIdSet {
+        boolean add(long logId);
+
+        boolean contains(long logId);
+
+        boolean remove(long logId);
+    }
+}
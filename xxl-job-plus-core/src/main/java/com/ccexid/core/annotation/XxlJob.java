@@ -5,6 +5,9 @@ import java.lang.annotation.*;
 /**
  * 方法级别任务处理器注解
  * 用于标记任务执行方法，将方法注册为XXL-Job任务处理器
+ * <p>
+ * 方法可以声明一个参数接收触发参数：String 原样传入，基本类型、枚举直接解析，Map、POJO 等按 JSON 解码；
+ * 相同的触发参数只解码一次，解码结果在触发之间共享，方法内不应修改
  *
  * @author xuxueli 2019-12-11 20:50:13
  */
@@ -37,4 +40,12 @@ public @interface XxlJob {
      */
     String destroy() default "";
 
+    /**
+     * 最大并行数
+     * 阻塞策略为并行执行时，同一作业在当前执行器内同时执行的最大触发数
+     *
+     * @return 最大并行数，默认为0表示使用执行器配置
+     */
+    int concurrency() default 0;
+
 }
@@ -4,6 +4,8 @@ import com.ccexid.core.model.IdleBeatParam;
 import com.ccexid.core.model.KillParam;
 import com.ccexid.core.model.LogParam;
 import com.ccexid.core.model.LogResult;
+import com.ccexid.core.model.LogSearchParam;
+import com.ccexid.core.model.LogSearchResult;
 import com.ccexid.core.model.ResponseEntity;
 import com.ccexid.core.model.TriggerParam;
 
@@ -52,11 +54,20 @@ public interface ExecutorBiz {
 
     /**
      * 日志查询方法
-     * 查询任务执行日志
+     * 查询任务执行日志，支持按起始行号读取或按字节偏移分页读取
      *
-     * @param logParam 日志查询参数，包含日志时间、ID和起始行号等信息
+     * @param logParam 日志查询参数，包含日志时间、ID和起始行号（或起始字节偏移）等信息
      * @return 响应实体，包含日志查询结果
      */
     ResponseEntity<LogResult> log(LogParam logParam);
 
+    /**
+     * 日志检索方法
+     * 在指定日期范围内的任务日志中检索内容，返回匹配的日志ID、行号及内容片段；返回行数和耗时均有上限，超出时返回已检索到的结果
+     *
+     * @param logSearchParam 日志检索参数，包含日期范围、检索内容及返回行数、耗时上限
+     * @return 响应实体，包含日志检索结果
+     */
+    ResponseEntity<LogSearchResult> logSearch(LogSearchParam logSearchParam);
+
 }
@@ -37,6 +37,15 @@ public class AdminBizClient implements AdminBiz {
     private String accessToken;
     private int timeout;
 
+    /**
+     * 调度中心地址
+     *
+     * @return 地址（以 / 结尾）
+     */
+    public String getAddressUrl() {
+        return addressUrl;
+    }
+
 
     /**
      * 处理执行器回调结果
@@ -0,0 +1,224 @@
+package com.ccexid.core.biz.client;
+
+import com.ccexid.core.biz.AdminBiz;
+import com.ccexid.core.enums.ResponseCode;
+import com.ccexid.core.model.ResponseEntity;
+import com.ccexid.core.util.XxlJobRemotingUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 调度中心调用路由
+ * 记录每个调度中心地址的健康状况：调用耗时的指数加权移动平均（EWMA）及熔断状态。调用时按健康的地址耗时从低到高依次尝试，直到一个成功；
+ * 连续失败达到阈值后熔断，熔断期间不再调用，冷却时间后放行一次探测调用（半开），成功则恢复，失败则继续熔断。
+ * 失败仅指远程调用失败（异常、超时、连接或HTTP异常，见 {@link XxlJobRemotingUtil#isRemotingError(ResponseEntity)}），
+ * 调度中心返回的业务失败说明该地址可用，不计入熔断，也不再转向其他地址。
+ * 回调、注册等所有调度中心调用共用同一份健康状况
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public class AdminBizRouter {
+
+    /**
+     * 连续失败多少次后熔断
+     */
+    private static final int FAILURE_THRESHOLD = 3;
+    /**
+     * 熔断冷却时间，之后放行一次探测调用
+     */
+    private static final long OPEN_MILLIS = 30 * 1000;
+    /**
+     * EWMA 平滑系数
+     */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final List<Endpoint> endpoints;
+
+    public AdminBizRouter(List<AdminBiz> adminBizList) {
+        List<Endpoint> list = new ArrayList<>(adminBizList.size());
+        for (int i = 0; i < adminBizList.size(); i++) {
+            list.add(new Endpoint(i, adminBizList.get(i)));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 依次调用调度中心直到一个返回响应，远程调用失败时转向下一个地址
+     *
+     * @param call 调用，可在其中记录每次调用的结果
+     * @return 调度中心返回的响应（成功或业务失败）；全部远程调用失败时为最后一个失败响应，全部熔断时为失败响应
+     */
+    public ResponseEntity<String> invoke(Function<AdminBiz, ResponseEntity<String>> call) {
+        ResponseEntity<String> result = null;
+        for (Endpoint endpoint : select()) {
+            // the half-open probe is claimed only by the call that actually uses the address
+            if (!endpoint.admit(System.currentTimeMillis())) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                result = call.apply(endpoint.adminBiz);
+            } catch (Exception e) {
+                result = ResponseEntity.of(ResponseCode.SERVICE_UNAVAILABLE.getCode(), "xxl-job admin call error(" + e.getMessage() + ")", null);
+            }
+            // application FAIL codes mean the admin answered, only remoting errors count against the address
+            boolean reachable = result != null && !XxlJobRemotingUtil.isRemotingError(result);
+            endpoint.record(reachable, (System.nanoTime() - start) / 1000000.0);
+            if (reachable) {
+                return result;
+            }
+        }
+        if (result == null) {
+            result = ResponseEntity.of(ResponseCode.FAIL.getCode(), "xxl-job admin circuit open for all addresses", null);
+        }
+        return result;
+    }
+
+    /**
+     * 本次调用的地址顺序：未熔断的地址按EWMA耗时升序（耗时相同按配置顺序），其后为冷却结束、可以探测的地址
+     */
+    private List<Endpoint> select() {
+        long now = System.currentTimeMillis();
+        List<Endpoint> closed = new ArrayList<>(endpoints.size());
+        List<Endpoint> probes = new ArrayList<>(1);
+        for (Endpoint endpoint : endpoints) {
+            State state = endpoint.getState();
+            if (state == State.CLOSED) {
+                closed.add(endpoint);
+            } else if (endpoint.isProbeDue(now)) {
+                probes.add(endpoint);
+            }
+        }
+        closed.sort(Comparator.comparingDouble(Endpoint::getEwmaMillis).thenComparingInt(endpoint -> endpoint.index));
+        closed.addAll(probes);
+        return closed;
+    }
+
+    /**
+     * 各地址的健康状况，按配置顺序
+     *
+     * @return 地址列表
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        /**
+         * 正常
+         */
+        CLOSED,
+        /**
+         * 熔断
+         */
+        OPEN,
+        /**
+         * 探测中
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 调度中心地址及其健康状况
+     */
+    public static final class Endpoint {
+        private final int index;
+        private final AdminBiz adminBiz;
+        private final String address;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private double ewmaMillis;
+        private long successCount;
+        private long failureCount;
+
+        private Endpoint(int index, AdminBiz adminBiz) {
+            this.index = index;
+            this.adminBiz = adminBiz;
+            this.address = adminBiz instanceof AdminBizClient ? ((AdminBizClient) adminBiz).getAddressUrl() : String.valueOf(adminBiz);
+        }
+
+        /**
+         * 熔断或探测的冷却时间已过，可以发起探测调用；探测调用未记录结果（如抛出Error）时同样在冷却时间后重新探测
+         */
+        private synchronized boolean isProbeDue(long now) {
+            return state != State.CLOSED && now - openedAt >= OPEN_MILLIS;
+        }
+
+        /**
+         * 即将调用该地址时判断能否调用，熔断地址冷却结束后由本次调用占用探测机会
+         *
+         * @return 未熔断或获得探测机会时为true；熔断冷却中或探测调用进行中时为false
+         */
+        private synchronized boolean admit(long now) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (!isProbeDue(now)) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            openedAt = now;
+            return true;
+        }
+
+        private synchronized void record(boolean success, double elapsedMillis) {
+            // failed calls count too, so an address that keeps timing out sinks in the order
+            ewmaMillis = ewmaMillis == 0 ? elapsedMillis : ewmaMillis + EWMA_ALPHA * (elapsedMillis - ewmaMillis);
+            if (success) {
+                successCount++;
+                consecutiveFailures = 0;
+                if (state != State.CLOSED) {
+                    log.info(">>>>>>>>>>> xxl-job, admin circuit closed, address:{}", address);
+                }
+                state = State.CLOSED;
+                return;
+            }
+            failureCount++;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+                if (state == State.CLOSED) {
+                    log.warn(">>>>>>>>>>> xxl-job, admin circuit open, address:{}, consecutive failures:{}", address, consecutiveFailures);
+                }
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * 调用耗时的指数加权移动平均（毫秒），尚未调用时为0
+         *
+         * @return 平均耗时
+         */
+        public synchronized double getEwmaMillis() {
+            return ewmaMillis;
+        }
+
+        public synchronized long getSuccessCount() {
+            return successCount;
+        }
+
+        public synchronized long getFailureCount() {
+            return failureCount;
+        }
+    }
+}
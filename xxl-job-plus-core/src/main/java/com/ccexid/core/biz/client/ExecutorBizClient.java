@@ -59,4 +59,9 @@ public class ExecutorBizClient implements ExecutorBiz {
         return XxlJobRemotingUtil.postBody(addressUrl + "log", accessToken, timeout, logParam, LogResult.class);
     }
 
+    @Override
+    public ResponseEntity<LogSearchResult> logSearch(LogSearchParam logSearchParam) {
+        return XxlJobRemotingUtil.postBody(addressUrl + "logSearch", accessToken, timeout, logSearchParam, LogSearchResult.class);
+    }
+
 }
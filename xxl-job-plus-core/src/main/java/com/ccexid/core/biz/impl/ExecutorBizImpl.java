@@ -15,8 +15,10 @@ import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.model.*;
 import com.ccexid.core.thread.JobThread;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.Date;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * 执行器业务实现类
@@ -124,7 +126,7 @@ public class ExecutorBizImpl implements ExecutorBiz {
             return ResponseEntity.of(ResponseCode.INTERNAL_SERVER_ERROR, "glueType[" + triggerParam.getGlueType() + "] is not valid.");
         }
 
-        // executor block strategy
+        // executor block strategy, SERIAL_EXECUTION and CONCURRENT_EXECUTION are both queued, the job thread decides how to run
         if (jobThread != null) {
             ExecutorBlockStrategy blockStrategy = IEnums.match(ExecutorBlockStrategy.class, triggerParam.getExecutorBlockStrategy(), null);
             if (ExecutorBlockStrategy.DISCARD_LATER == blockStrategy) {
@@ -147,7 +149,7 @@ public class ExecutorBizImpl implements ExecutorBiz {
             jobThread = JobExecutor.registerJobHandler(triggerParam.getJobId(), jobHandler, removeOldReason);
         }
 
-        // push data to queue
+        // push data to queue, QUEUE_FULL when the job or executor queue capacity is exceeded
         return jobThread.pushTriggerQueue(triggerParam);
     }
 
@@ -168,8 +170,23 @@ public class ExecutorBizImpl implements ExecutorBiz {
         // log filename: logPath/yyyy-MM-dd/9999.log
         String logFileName = JobLogFileAppender.makeLogFileName(new Date(logParam.getLogDateTim()), logParam.getLogId());
 
-        LogResult logResult = JobLogFileAppender.readLog(logFileName, logParam.getFromLineNum());
+        // 按字节偏移分页，或按行号读取
+        LogResult logResult = logParam.getFromOffset() >= 0
+                ? JobLogFileAppender.readLogChunk(logFileName, logParam.getFromOffset(), logParam.getMaxBytes())
+                : JobLogFileAppender.readLog(logFileName, logParam.getFromLineNum());
         return ResponseEntity.success(logResult);
     }
 
+    @Override
+    public ResponseEntity<LogSearchResult> logSearch(LogSearchParam logSearchParam) {
+        if (logSearchParam == null || StringUtils.isEmpty(logSearchParam.getPattern())) {
+            return ResponseEntity.of(ResponseCode.PARAM_ERROR.getCode(), "log search pattern is empty.", null);
+        }
+        try {
+            return ResponseEntity.success(JobLogFileAppender.searchLog(logSearchParam));
+        } catch (PatternSyntaxException e) {
+            return ResponseEntity.of(ResponseCode.PARAM_ERROR.getCode(), "log search pattern is invalid: " + e.getDescription(), null);
+        }
+    }
+
 }
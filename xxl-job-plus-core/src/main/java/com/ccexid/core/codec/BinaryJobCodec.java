@@ -0,0 +1,493 @@
+package com.ccexid.core.codec;
+
+import com.ccexid.core.model.HandleCallbackParam;
+import com.ccexid.core.model.IdleBeatParam;
+import com.ccexid.core.model.KillParam;
+import com.ccexid.core.model.LogParam;
+import com.ccexid.core.model.RegistryParam;
+import com.ccexid.core.model.TriggerParam;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑二进制编解码器
+ * 格式为 [魔数][格式版本][值]，值以类型开头：列表为 [数量][元素...]，对象为 [长度][字段...]，
+ * 字段为 [字段编号&lt;&lt;1|类型][内容]，整数使用 zigzag 变长编码，字符串为 [长度][UTF-8]，null 字段不写入。
+ * 字段编号固定不变，新增字段使用新编号，读取时跳过不认识的字段，因此新增字段不需要升级格式版本
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public class BinaryJobCodec implements JobCodec {
+
+    public static final byte ID = 2;
+    public static final String NAME = "binary";
+
+    private static final int MAGIC = 0x58;
+    /**
+     * 格式版本，仅在不兼容的格式变更时递增
+     */
+    private static final int VERSION = 1;
+    private static final int MAX_DEPTH = 8;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_LIST = 1;
+    private static final int TYPE_HANDLE_CALLBACK_PARAM = 16;
+    private static final int TYPE_TRIGGER_PARAM = 17;
+    private static final int TYPE_KILL_PARAM = 18;
+    private static final int TYPE_IDLE_BEAT_PARAM = 19;
+    private static final int TYPE_LOG_PARAM = 20;
+    private static final int TYPE_REGISTRY_PARAM = 21;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 1;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        Output out = new Output();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeValue(out, value, 0);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        Input in = new Input(bytes);
+        if (in.readByte() != MAGIC) {
+            throw new IOException("binary codec bad magic");
+        }
+        int version = in.readByte();
+        if (version > VERSION) {
+            throw new IOException("binary codec unsupported version: " + version);
+        }
+        Object value = readValue(in, bytes.length, 0);
+        if (in.pos != bytes.length) {
+            throw new IOException("binary codec trailing bytes: " + (bytes.length - in.pos));
+        }
+        return value;
+    }
+
+    // ---------------------- encode ----------------------
+
+    private static void writeValue(Output out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("binary codec nesting too deep");
+        }
+        if (value == null) {
+            out.writeVarint(TYPE_NULL);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeVarint(TYPE_LIST);
+            out.writeVarint(list.size());
+            for (Object element : list) {
+                writeValue(out, element, depth + 1);
+            }
+        } else if (value instanceof HandleCallbackParam) {
+            HandleCallbackParam param = (HandleCallbackParam) value;
+            int start = out.beginStruct(TYPE_HANDLE_CALLBACK_PARAM);
+            out.writeLong(1, param.getLogId());
+            out.writeLong(2, param.getLogDateTim());
+            out.writeLong(3, param.getHandleCode());
+            out.writeString(4, param.getHandleMsg());
+            out.endStruct(start);
+        } else if (value instanceof TriggerParam) {
+            TriggerParam param = (TriggerParam) value;
+            int start = out.beginStruct(TYPE_TRIGGER_PARAM);
+            out.writeLong(1, param.getJobId());
+            out.writeString(2, param.getExecutorHandler());
+            out.writeString(3, param.getExecutorParams());
+            out.writeString(4, param.getExecutorBlockStrategy());
+            out.writeLong(5, param.getExecutorTimeout());
+            out.writeLong(6, param.getLogId());
+            out.writeLong(7, param.getLogDateTime());
+            out.writeString(8, param.getGlueType());
+            out.writeString(9, param.getGlueSource());
+            out.writeLong(10, param.getGlueUpdateTime());
+            out.writeLong(11, param.getBroadcastIndex());
+            out.writeLong(12, param.getBroadcastTotal());
+            out.endStruct(start);
+        } else if (value instanceof KillParam) {
+            int start = out.beginStruct(TYPE_KILL_PARAM);
+            out.writeLong(1, ((KillParam) value).getJobId());
+            out.endStruct(start);
+        } else if (value instanceof IdleBeatParam) {
+            int start = out.beginStruct(TYPE_IDLE_BEAT_PARAM);
+            out.writeLong(1, ((IdleBeatParam) value).getJobId());
+            out.endStruct(start);
+        } else if (value instanceof LogParam) {
+            LogParam param = (LogParam) value;
+            int start = out.beginStruct(TYPE_LOG_PARAM);
+            out.writeLong(1, param.getLogDateTim());
+            out.writeLong(2, param.getLogId());
+            out.writeLong(3, param.getFromLineNum());
+            out.writeLong(4, param.getFromOffset());
+            out.writeLong(5, param.getMaxBytes());
+            out.endStruct(start);
+        } else if (value instanceof RegistryParam) {
+            RegistryParam param = (RegistryParam) value;
+            int start = out.beginStruct(TYPE_REGISTRY_PARAM);
+            out.writeString(1, param.getRegistryGroup());
+            out.writeString(2, param.getRegistryKey());
+            out.writeString(3, param.getRegistryValue());
+            out.endStruct(start);
+        } else {
+            throw new IOException("binary codec unsupported type: " + value.getClass().getName());
+        }
+    }
+
+    // ---------------------- decode ----------------------
+
+    private static Object readValue(Input in, int limit, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("binary codec nesting too deep");
+        }
+        int type = (int) in.readVarint(limit);
+        if (type == TYPE_NULL) {
+            return null;
+        }
+        if (type == TYPE_LIST) {
+            long size = in.readVarint(limit);
+            // every element takes at least one byte
+            if (size < 0 || size > limit - in.pos) {
+                throw new IOException("binary codec bad list size: " + size);
+            }
+            List<Object> list = new ArrayList<>((int) size);
+            for (int i = 0; i < size; i++) {
+                list.add(readValue(in, limit, depth + 1));
+            }
+            return list;
+        }
+
+        long length = in.readVarint(limit);
+        if (length < 0 || length > limit - in.pos) {
+            throw new IOException("binary codec truncated struct");
+        }
+        int end = in.pos + (int) length;
+        Object value;
+        switch (type) {
+            case TYPE_HANDLE_CALLBACK_PARAM:
+                value = readHandleCallbackParam(in, end);
+                break;
+            case TYPE_TRIGGER_PARAM:
+                value = readTriggerParam(in, end);
+                break;
+            case TYPE_KILL_PARAM:
+                KillParam killParam = new KillParam();
+                while (in.pos < end) {
+                    int key = in.readKey(end);
+                    if (key == (1 << 1 | WIRE_VARINT)) {
+                        killParam.setJobId((int) in.readLong(end));
+                    } else {
+                        in.skip(key, end);
+                    }
+                }
+                value = killParam;
+                break;
+            case TYPE_IDLE_BEAT_PARAM:
+                IdleBeatParam idleBeatParam = new IdleBeatParam();
+                while (in.pos < end) {
+                    int key = in.readKey(end);
+                    if (key == (1 << 1 | WIRE_VARINT)) {
+                        idleBeatParam.setJobId((int) in.readLong(end));
+                    } else {
+                        in.skip(key, end);
+                    }
+                }
+                value = idleBeatParam;
+                break;
+            case TYPE_LOG_PARAM:
+                value = readLogParam(in, end);
+                break;
+            case TYPE_REGISTRY_PARAM:
+                value = readRegistryParam(in, end);
+                break;
+            default:
+                throw new IOException("binary codec unknown type: " + type);
+        }
+        if (in.pos != end) {
+            throw new IOException("binary codec struct overrun, type: " + type);
+        }
+        return value;
+    }
+
+    private static HandleCallbackParam readHandleCallbackParam(Input in, int end) throws IOException {
+        HandleCallbackParam param = new HandleCallbackParam();
+        while (in.pos < end) {
+            int key = in.readKey(end);
+            switch (key) {
+                case 1 << 1 | WIRE_VARINT:
+                    param.setLogId(in.readLong(end));
+                    break;
+                case 2 << 1 | WIRE_VARINT:
+                    param.setLogDateTim(in.readLong(end));
+                    break;
+                case 3 << 1 | WIRE_VARINT:
+                    param.setHandleCode((int) in.readLong(end));
+                    break;
+                case 4 << 1 | WIRE_BYTES:
+                    param.setHandleMsg(in.readString(end));
+                    break;
+                default:
+                    in.skip(key, end);
+            }
+        }
+        return param;
+    }
+
+    private static TriggerParam readTriggerParam(Input in, int end) throws IOException {
+        TriggerParam param = new TriggerParam();
+        while (in.pos < end) {
+            int key = in.readKey(end);
+            switch (key) {
+                case 1 << 1 | WIRE_VARINT:
+                    param.setJobId((int) in.readLong(end));
+                    break;
+                case 2 << 1 | WIRE_BYTES:
+                    param.setExecutorHandler(in.readString(end));
+                    break;
+                case 3 << 1 | WIRE_BYTES:
+                    param.setExecutorParams(in.readString(end));
+                    break;
+                case 4 << 1 | WIRE_BYTES:
+                    param.setExecutorBlockStrategy(in.readString(end));
+                    break;
+                case 5 << 1 | WIRE_VARINT:
+                    param.setExecutorTimeout((int) in.readLong(end));
+                    break;
+                case 6 << 1 | WIRE_VARINT:
+                    param.setLogId(in.readLong(end));
+                    break;
+                case 7 << 1 | WIRE_VARINT:
+                    param.setLogDateTime(in.readLong(end));
+                    break;
+                case 8 << 1 | WIRE_BYTES:
+                    param.setGlueType(in.readString(end));
+                    break;
+                case 9 << 1 | WIRE_BYTES:
+                    param.setGlueSource(in.readString(end));
+                    break;
+                case 10 << 1 | WIRE_VARINT:
+                    param.setGlueUpdateTime(in.readLong(end));
+                    break;
+                case 11 << 1 | WIRE_VARINT:
+                    param.setBroadcastIndex((int) in.readLong(end));
+                    break;
+                case 12 << 1 | WIRE_VARINT:
+                    param.setBroadcastTotal((int) in.readLong(end));
+                    break;
+                default:
+                    in.skip(key, end);
+            }
+        }
+        return param;
+    }
+
+    private static LogParam readLogParam(Input in, int end) throws IOException {
+        LogParam param = new LogParam();
+        while (in.pos < end) {
+            int key = in.readKey(end);
+            switch (key) {
+                case 1 << 1 | WIRE_VARINT:
+                    param.setLogDateTim(in.readLong(end));
+                    break;
+                case 2 << 1 | WIRE_VARINT:
+                    param.setLogId(in.readLong(end));
+                    break;
+                case 3 << 1 | WIRE_VARINT:
+                    param.setFromLineNum((int) in.readLong(end));
+                    break;
+                case 4 << 1 | WIRE_VARINT:
+                    param.setFromOffset(in.readLong(end));
+                    break;
+                case 5 << 1 | WIRE_VARINT:
+                    param.setMaxBytes((int) in.readLong(end));
+                    break;
+                default:
+                    in.skip(key, end);
+            }
+        }
+        return param;
+    }
+
+    private static RegistryParam readRegistryParam(Input in, int end) throws IOException {
+        RegistryParam param = new RegistryParam();
+        while (in.pos < end) {
+            int key = in.readKey(end);
+            switch (key) {
+                case 1 << 1 | WIRE_BYTES:
+                    param.setRegistryGroup(in.readString(end));
+                    break;
+                case 2 << 1 | WIRE_BYTES:
+                    param.setRegistryKey(in.readString(end));
+                    break;
+                case 3 << 1 | WIRE_BYTES:
+                    param.setRegistryValue(in.readString(end));
+                    break;
+                default:
+                    in.skip(key, end);
+            }
+        }
+        return param;
+    }
+
+    // ---------------------- buffer ----------------------
+
+    private static final class Output {
+        private byte[] buf = new byte[128];
+        private int pos;
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeLong(int field, long value) {
+            writeVarint(field << 1 | WIRE_VARINT);
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(int field, String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(field << 1 | WIRE_BYTES);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /**
+         * @return 对象内容的起始位置
+         */
+        int beginStruct(int type) {
+            writeVarint(type);
+            return pos;
+        }
+
+        /**
+         * 在对象内容前插入长度
+         */
+        void endStruct(int start) {
+            int length = pos - start;
+            int lengthBytes = 1;
+            for (int v = length >>> 7; v != 0; v >>>= 7) {
+                lengthBytes++;
+            }
+            ensure(lengthBytes);
+            System.arraycopy(buf, start, buf, start + lengthBytes, length);
+            int p = start;
+            int v = length;
+            while ((v & ~0x7F) != 0) {
+                buf[p++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[p] = (byte) v;
+            pos += lengthBytes;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int bytes) {
+            if (pos + bytes > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + bytes));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buf;
+        private int pos;
+
+        Input(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= buf.length) {
+                throw new IOException("binary codec truncated");
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarint(int limit) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= limit) {
+                    throw new IOException("binary codec truncated varint");
+                }
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("binary codec malformed varint");
+        }
+
+        int readKey(int limit) throws IOException {
+            long key = readVarint(limit);
+            if (key < 0 || key > Integer.MAX_VALUE) {
+                throw new IOException("binary codec bad field key: " + key);
+            }
+            return (int) key;
+        }
+
+        long readLong(int limit) throws IOException {
+            long value = readVarint(limit);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString(int limit) throws IOException {
+            long length = readVarint(limit);
+            if (length < 0 || length > limit - pos) {
+                throw new IOException("binary codec truncated string");
+            }
+            String value = new String(buf, pos, (int) length, StandardCharsets.UTF_8);
+            pos += (int) length;
+            return value;
+        }
+
+        /**
+         * 跳过不认识的字段
+         */
+        void skip(int key, int limit) throws IOException {
+            if ((key & 1) == WIRE_VARINT) {
+                readVarint(limit);
+                return;
+            }
+            long length = readVarint(limit);
+            if (length < 0 || length > limit - pos) {
+                throw new IOException("binary codec truncated field");
+            }
+            pos += (int) length;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ccexid.core.codec;
+
+import com.ccexid.core.model.HandleCallbackParam;
+import com.ccexid.core.model.IdleBeatParam;
+import com.ccexid.core.model.KillParam;
+import com.ccexid.core.model.LogParam;
+import com.ccexid.core.model.RegistryParam;
+import com.ccexid.core.model.TriggerParam;
+import com.ccexid.core.util.JdkSerializeTool;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JDK序列化编解码器
+ * 兼容旧版本写入的数据；体积大且反序列化存在安全风险，不建议作为默认编解码器。
+ * 反序列化只允许 ArrayList 及内置的参数类型，其他类型（包括动态代理）一律拒绝
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public class JdkJobCodec implements JobCodec {
+
+    public static final byte ID = 1;
+    public static final String NAME = "jdk";
+
+    private static final Set<String> ALLOWED_CLASSES = classNames(ArrayList.class, HandleCallbackParam.class,
+            TriggerParam.class, KillParam.class, IdleBeatParam.class, LogParam.class, RegistryParam.class);
+    private static final Set<String> LEGACY_CALLBACK_CLASSES = classNames(ArrayList.class, HandleCallbackParam.class);
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte[] bytes = JdkSerializeTool.serialize(value);
+        if (bytes == null) {
+            throw new IOException("jdk serialize fail: " + (value == null ? null : value.getClass().getName()));
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        return deserialize(bytes, ALLOWED_CLASSES);
+    }
+
+    /**
+     * 读取旧版本写入的失败回调文件（未带编解码器标识的JDK序列化数据），只允许回调参数列表
+     *
+     * @param bytes 文件内容
+     * @return 解码后的对象
+     * @throws IOException 数据损坏或包含不允许的类型
+     */
+    public static Object decodeLegacyCallbacks(byte[] bytes) throws IOException {
+        return deserialize(bytes, LEGACY_CALLBACK_CLASSES);
+    }
+
+    private static Object deserialize(byte[] bytes, Set<String> allowedClasses) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                if (!allowedClasses.contains(desc.getName())) {
+                    throw new InvalidClassException(desc.getName(), "class not allowed by jdk codec");
+                }
+                return super.resolveClass(desc);
+            }
+
+            @Override
+            protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+                throw new InvalidClassException(Arrays.toString(interfaces), "proxy class not allowed by jdk codec");
+            }
+        }) {
+            Object value = in.readObject();
+            if (value == null) {
+                throw new IOException("jdk deserialize fail");
+            }
+            return value;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("jdk deserialize fail", e);
+        }
+    }
+
+    private static Set<String> classNames(Class<?>... classes) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            names.add(clazz.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ccexid.core.codec;
+
+import java.io.IOException;
+
+/**
+ * 持久化编解码器
+ * 用于执行器写入磁盘的数据（如失败回调WAL），每条数据以编解码器标识开头，读取时按标识选择编解码器，切换编解码器后旧数据仍可读取。
+ * 除内置的 binary、jdk 外，可通过 META-INF/services/com.ccexid.core.codec.JobCodec 注册自定义实现
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public interface JobCodec {
+
+    /**
+     * 编解码器标识，写入每条数据的首字节，取值 1~127 且不可重复，发布后不可修改
+     *
+     * @return 标识
+     */
+    byte getId();
+
+    /**
+     * 编解码器名称，用于配置
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 编码
+     *
+     * @param value 待编码的对象
+     * @return 编码后的字节
+     * @throws IOException 不支持的类型或编码失败
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * 解码
+     *
+     * @param bytes 编码后的字节
+     * @return 解码后的对象
+     * @throws IOException 数据损坏或版本不支持
+     */
+    Object decode(byte[] bytes) throws IOException;
+}
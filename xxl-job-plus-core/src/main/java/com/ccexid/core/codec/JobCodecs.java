@@ -0,0 +1,135 @@
+package com.ccexid.core.codec;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编解码器注册表
+ * 内置 binary（默认）、jdk 编解码器，并通过 {@link ServiceLoader} 加载自定义实现。
+ * {@link #encode(Object)} 的结果以编解码器标识开头，{@link #decode(byte[])} 按标识解码。
+ * 持久化数据可能被篡改，默认拒绝解码JDK序列化数据：jdk 标识的数据仅在 jdk 为默认编解码器或显式开启时解码，
+ * 未带标识的旧版本数据只在迁移旧版本失败回调文件时读取（见 {@link JdkJobCodec#decodeLegacyCallbacks(byte[])}）
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public final class JobCodecs {
+
+    /**
+     * JDK序列化流的首字节（0xACED）
+     */
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final Map<Byte, JobCodec> CODECS_BY_ID = new ConcurrentHashMap<>();
+    private static final Map<String, JobCodec> CODECS_BY_NAME = new ConcurrentHashMap<>();
+    private static volatile JobCodec defaultCodec;
+    private static volatile boolean jdkDecodeEnabled = false;
+
+    static {
+        register(new BinaryJobCodec());
+        register(new JdkJobCodec());
+        try {
+            for (JobCodec codec : ServiceLoader.load(JobCodec.class, JobCodecs.class.getClassLoader())) {
+                register(codec);
+            }
+        } catch (ServiceConfigurationError e) {
+            log.error(">>>>>>>>>>> xxl-job, load job codec error.", e);
+        }
+        defaultCodec = CODECS_BY_ID.get(BinaryJobCodec.ID);
+    }
+
+    private JobCodecs() {
+    }
+
+    private static void register(JobCodec codec) {
+        byte id = codec.getId();
+        if (id < 1) {
+            log.warn(">>>>>>>>>>> xxl-job, job codec ignored, invalid id:{}, codec:{}", id, codec.getClass().getName());
+            return;
+        }
+        JobCodec exists = CODECS_BY_ID.putIfAbsent(id, codec);
+        if (exists != null) {
+            log.warn(">>>>>>>>>>> xxl-job, job codec ignored, id:{} already used by {}", id, exists.getClass().getName());
+            return;
+        }
+        CODECS_BY_NAME.put(codec.getName(), codec);
+    }
+
+    /**
+     * 设置默认编解码器，名称不存在时保持不变
+     *
+     * @param name 编解码器名称
+     */
+    public static void setDefault(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        JobCodec codec = CODECS_BY_NAME.get(name.trim());
+        if (codec == null) {
+            log.warn(">>>>>>>>>>> xxl-job, job codec not found: {}, keep {}", name, defaultCodec.getName());
+            return;
+        }
+        defaultCodec = codec;
+    }
+
+    public static JobCodec getDefault() {
+        return defaultCodec;
+    }
+
+    /**
+     * 是否解码 jdk 编解码器写入的数据（默认编解码器为 jdk 时总是解码）
+     *
+     * @param enabled true表示解码
+     */
+    public static void setJdkDecodeEnabled(boolean enabled) {
+        jdkDecodeEnabled = enabled;
+    }
+
+    /**
+     * 使用默认编解码器编码，结果以编解码器标识开头
+     *
+     * @param value 待编码的对象
+     * @return 编码后的字节
+     * @throws IOException 编码失败
+     */
+    public static byte[] encode(Object value) throws IOException {
+        JobCodec codec = defaultCodec;
+        byte[] payload = codec.encode(value);
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = codec.getId();
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    /**
+     * 按标识解码 {@link #encode(Object)} 的结果
+     *
+     * @param bytes 编码后的字节
+     * @return 解码后的对象
+     * @throws IOException 编解码器不存在或数据损坏
+     */
+    public static Object decode(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) {
+            throw new IOException("job codec empty data");
+        }
+        if (bytes[0] == JDK_STREAM_MAGIC) {
+            // written before codecs were tagged, only read by the legacy callback file migration
+            throw new IOException("job codec untagged jdk serialized data rejected");
+        }
+        JobCodec codec = CODECS_BY_ID.get(bytes[0]);
+        if (codec == null) {
+            throw new IOException("job codec not found, id: " + bytes[0]);
+        }
+        if (codec.getId() == JdkJobCodec.ID && !jdkDecodeEnabled && defaultCodec.getId() != JdkJobCodec.ID) {
+            throw new IOException("job codec jdk decode disabled, enable job.plus.executor.codec-jdk-decode-enabled to read it");
+        }
+        return codec.decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+}
@@ -0,0 +1,111 @@
+package com.ccexid.core.context;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 日志调用位置定位器
+ * JDK 9+ 使用 StackWalker 逐帧遍历，只解析到第一个业务调用帧为止；JDK 8 回退为完整的异常堆栈
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class CallerLocator {
+
+    private static final String HELPER_CLASS_NAME = JobPlusHelper.class.getName();
+    private static final String LOCATOR_CLASS_NAME = CallerLocator.class.getName();
+
+    /**
+     * StackWalker#walk，已绑定 StackWalker 实例，不支持时为null
+     */
+    private static final MethodHandle WALK;
+    private static final MethodHandle FRAME_CLASS_NAME;
+    private static final MethodHandle FRAME_METHOD_NAME;
+    private static final MethodHandle FRAME_LINE_NUMBER;
+
+    private static final Function<Stream<Object>, Object> FIRST_CALLER_FRAME =
+            frames -> frames.filter(frame -> !isHelperFrame(frameClassName(frame))).findFirst().orElse(null);
+
+    static {
+        MethodHandle walk = null;
+        MethodHandle className = null;
+        MethodHandle methodName = null;
+        MethodHandle lineNumber = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            Object walker = walkerClass.getMethod("getInstance").invoke(null);
+            walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class))
+                    .bindTo(walker);
+            className = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            methodName = lookup.findVirtual(frameClass, "getMethodName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            lineNumber = lookup.findVirtual(frameClass, "getLineNumber", MethodType.methodType(int.class))
+                    .asType(MethodType.methodType(int.class, Object.class));
+        } catch (Throwable e) {
+            // JDK 8
+            walk = null;
+            log.debug(">>>>>>>>>>> xxl-job StackWalker not available, fallback to stack trace.");
+        }
+        WALK = walk;
+        FRAME_CLASS_NAME = className;
+        FRAME_METHOD_NAME = methodName;
+        FRAME_LINE_NUMBER = lineNumber;
+    }
+
+    private CallerLocator() {
+    }
+
+    /**
+     * 追加调用 JobPlusHelper 的业务代码位置，格式为 [类名#方法名]-[行号]-
+     *
+     * @param sb 日志内容
+     */
+    static void appendCaller(StringBuilder sb) {
+        if (WALK != null) {
+            try {
+                Object frame = (Object) WALK.invokeExact(FIRST_CALLER_FRAME);
+                if (frame != null) {
+                    append(sb, (String) FRAME_CLASS_NAME.invokeExact(frame),
+                            (String) FRAME_METHOD_NAME.invokeExact(frame),
+                            (int) FRAME_LINE_NUMBER.invokeExact(frame));
+                    return;
+                }
+            } catch (Throwable e) {
+                log.debug(">>>>>>>>>>> xxl-job StackWalker walk fail.", e);
+            }
+        }
+
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!isHelperFrame(element.getClassName())) {
+                append(sb, element.getClassName(), element.getMethodName(), element.getLineNumber());
+                return;
+            }
+        }
+    }
+
+    private static void append(StringBuilder sb, String className, String methodName, int lineNumber) {
+        sb.append('[').append(className).append('#').append(methodName).append("]-[")
+                .append(lineNumber).append("]-");
+    }
+
+    private static boolean isHelperFrame(String className) {
+        return HELPER_CLASS_NAME.equals(className) || LOCATOR_CLASS_NAME.equals(className);
+    }
+
+    private static String frameClassName(Object frame) {
+        try {
+            return (String) FRAME_CLASS_NAME.invokeExact(frame);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
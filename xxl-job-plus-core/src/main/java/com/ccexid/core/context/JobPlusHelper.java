@@ -20,6 +20,10 @@ import java.util.Optional;
 @Slf4j
 public class JobPlusHelper {
 
+    private static volatile boolean logCallerLocation = true;
+
+    private static volatile LogTime logTime;
+
     /**
      * 获取当前线程的作业上下文实例
      *
@@ -147,41 +151,75 @@ public class JobPlusHelper {
         return handleSuccess(ResponseCode.SUCCESS.getMessage());
     }
 
+    /**
+     * 是否在任务日志中记录调用位置（类名、方法名、行号）
+     *
+     * @param enabled 关闭后不再采集调用堆栈
+     */
+    public static void setLogCallerLocation(boolean enabled) {
+        logCallerLocation = enabled;
+    }
+
     /**
      * 记录详细日志信息
      *
-     * @param callInfo  调用堆栈信息，包含类名、方法名、行号等信息
      * @param appendLog 要追加的日志内容
      * @return 日志记录成功返回true，失败返回false
      */
-    private static boolean logDetail(StackTraceElement callInfo, String appendLog) {
-        if (callInfo == null) {
-            log.warn("callInfo is null, skip logging.");
+    private static boolean logDetail(String appendLog) {
+        JobPlusContext context = JobPlusContext.getInstance();
+        if (context == null) {
             return false;
         }
 
-        return getContext().map(context -> {
-            // 构建日志内容
-            StringBuffer sb = new StringBuffer();
-            sb.append(DateUtil.formatDateTime(new Date())).append(" ")
-                    .append("[").append(callInfo.getClassName()).append("#").append(callInfo.getMethodName()).append("]").append("-")
-                    .append("[").append(callInfo.getLineNumber()).append("]").append("-")
-                    .append("[").append(Thread.currentThread().getName()).append("] ").append(StringUtils.defaultString(appendLog));
-
-            String formatAppendLog = sb.toString();
-            String logFileName = context.getJobLogFileName();
-
-            // 根据日志文件名是否存在决定日志输出方式
-            if (StringUtils.isNotBlank(logFileName)) {
-                JobLogFileAppender.appendLog(logFileName, formatAppendLog);
-                return true;
-            } else {
-                log.error(formatAppendLog);
-                return false;
-            }
-        }).orElse(false);
+        // 构建日志内容
+        StringBuilder sb = new StringBuilder(64 + (appendLog != null ? appendLog.length() : 0));
+        sb.append(formatLogTime()).append(' ');
+        if (logCallerLocation) {
+            CallerLocator.appendCaller(sb);
+        }
+        sb.append('[').append(Thread.currentThread().getName()).append("] ");
+        if (appendLog != null) {
+            sb.append(appendLog);
+        }
+
+        String formatAppendLog = sb.toString();
+        String logFileName = context.getJobLogFileName();
+
+        // 根据日志文件名是否存在决定日志输出方式
+        if (StringUtils.isNotBlank(logFileName)) {
+            JobLogFileAppender.appendLog(logFileName, formatAppendLog);
+            return true;
+        } else {
+            log.error(formatAppendLog);
+            return false;
+        }
+    }
+
+    /**
+     * 格式化当前时间，同一秒内复用格式化结果
+     *
+     * @return yyyy-MM-dd HH:mm:ss
+     */
+    private static String formatLogTime() {
+        long second = System.currentTimeMillis() / 1000;
+        LogTime current = logTime;
+        if (current == null || current.second != second) {
+            current = new LogTime(second, DateUtil.formatDateTime(new Date(second * 1000)));
+            logTime = current;
+        }
+        return current.text;
     }
 
+    private static final class LogTime {
+        private final long second;
+        private final String text;
+
+        private LogTime(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
 
     /**
      * 记录异常信息到日志中
@@ -190,15 +228,16 @@ public class JobPlusHelper {
      * @return 记录结果，true表示记录成功，false表示记录失败
      */
     public static boolean log(Throwable e) {
+        if (JobPlusContext.getInstance() == null) {
+            return false;
+        }
 
         // 将异常堆栈信息转换为字符串
         StringWriter stringWriter = new StringWriter();
         e.printStackTrace(new PrintWriter(stringWriter));
         String appendLog = stringWriter.toString();
 
-        // 获取调用此方法的代码位置信息
-        StackTraceElement callInfo = new Throwable().getStackTrace()[1];
-        return logDetail(callInfo, appendLog);
+        return logDetail(appendLog);
     }
 
     /**
@@ -209,14 +248,16 @@ public class JobPlusHelper {
      * @return boolean 返回日志记录是否成功的结果
      */
     public static boolean log(String appendLogPattern, Object... appendLogArguments) {
+        if (JobPlusContext.getInstance() == null) {
+            return false;
+        }
 
         // 格式化日志消息，将模式字符串和参数合并成完整的日志内容
         FormattingTuple ft = MessageFormatter.arrayFormat(appendLogPattern, appendLogArguments);
         String appendLog = ft.getMessage();
 
-        // 获取调用栈信息，[1]表示调用当前方法的上一层方法信息
-        StackTraceElement callInfo = new Throwable().getStackTrace()[1];
-        return logDetail(callInfo, appendLog);
+        // 调用位置在拼接日志时按需采集
+        return logDetail(appendLog);
     }
 
 
@@ -17,7 +17,11 @@ public enum ExecutorBlockStrategy implements IEnums {
      */
     SERIAL_EXECUTION("Serial execution"),
 
-    /*CONCURRENT_EXECUTION("并行"),*/
+    /**
+     * 并行执行策略
+     * 同一作业的多次触发在执行器内并行执行，并行数受作业最大并行数限制，超出部分排队等待
+     */
+    CONCURRENT_EXECUTION("Concurrent execution"),
 
     /**
      * 丢弃后续策略
@@ -0,0 +1,30 @@
+package com.ccexid.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 执行器引擎枚举类
+ * 定义了作业触发队列的驱动方式
+ */
+@Getter
+@AllArgsConstructor
+public enum ExecutorEngine implements IEnums {
+
+    /**
+     * 独占线程
+     * 每个作业独占一个任务线程，空闲超过限制后回收
+     */
+    THREAD("Thread per job"),
+
+    /**
+     * 共享线程池
+     * 每个作业仅保留一个触发邮箱，由固定大小的工作窃取线程池统一排空，线程数与CPU核数相关而与作业数无关
+     */
+    POOL("Shared worker pool");
+
+    /**
+     * 引擎标题描述
+     */
+    private final String title;
+}
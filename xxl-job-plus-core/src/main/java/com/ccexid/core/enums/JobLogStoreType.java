@@ -0,0 +1,30 @@
+package com.ccexid.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 任务日志存储方式枚举类
+ * 定义了任务日志在磁盘上的组织方式
+ */
+@Getter
+@AllArgsConstructor
+public enum JobLogStoreType implements IEnums {
+
+    /**
+     * 单文件
+     * 每次触发一个日志文件：日志路径/yyyy-MM-dd/日志ID.log
+     */
+    FILE("File per trigger"),
+
+    /**
+     * 分段文件
+     * 同一天所有触发的日志追加到少量滚动的分段文件中，按日志ID索引各段内的区间，读取、清理均以分段为单位
+     */
+    SEGMENT("Rolling segment files");
+
+    /**
+     * 存储方式标题描述
+     */
+    private final String title;
+}
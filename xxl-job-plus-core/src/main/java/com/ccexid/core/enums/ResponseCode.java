@@ -39,6 +39,10 @@ public enum ResponseCode implements IEnums {
      * 禁止访问
      */
     FORBIDDEN(403, "禁止访问"),
+    /**
+     * 触发队列已满
+     */
+    QUEUE_FULL(429, "触发队列已满"),
     /**
      * 资源不存在
      */
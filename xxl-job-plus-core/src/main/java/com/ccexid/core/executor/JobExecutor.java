@@ -3,13 +3,21 @@ package com.ccexid.core.executor;
 import com.ccexid.core.annotation.XxlJob;
 import com.ccexid.core.biz.AdminBiz;
 import com.ccexid.core.biz.client.AdminBizClient;
+import com.ccexid.core.biz.client.AdminBizRouter;
+import com.ccexid.core.codec.JobCodecs;
+import com.ccexid.core.context.JobPlusHelper;
+import com.ccexid.core.enums.ExecutorEngine;
 import com.ccexid.core.handler.AbstractJobHandler;
 import com.ccexid.core.handler.impl.MethodJobHandler;
+import com.ccexid.core.log.JobLogAsyncWriter;
 import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.props.JobPlusProperties;
 import com.ccexid.core.server.EmbedServer;
 import com.ccexid.core.thread.JobLogFileCleanThread;
 import com.ccexid.core.thread.JobThread;
+import com.ccexid.core.thread.JobThreadFactory;
+import com.ccexid.core.thread.JobTimeoutWatchdog;
+import com.ccexid.core.thread.JobWorkerPool;
 import com.ccexid.core.thread.TriggerCallbackThread;
 import com.ccexid.core.util.IpUtil;
 import com.ccexid.core.util.NetUtil;
@@ -35,6 +43,9 @@ public class JobExecutor {
     private static final ConcurrentMap<Integer, JobThread> JOB_THREAD_MAP = new ConcurrentHashMap<>();
 
     private static List<AdminBiz> adminList;
+    private static AdminBizRouter adminBizRouter;
+    private static int concurrency = Runtime.getRuntime().availableProcessors();
+    private static int triggerQueueCapacity = 0;
     private EmbedServer embedServer;
 
     /**
@@ -55,6 +66,15 @@ public class JobExecutor {
         return adminList;
     }
 
+    /**
+     * 获取调度中心调用路由，按健康状况选择调度中心地址
+     *
+     * @return 调用路由，未配置调度中心地址时为null
+     */
+    public static AdminBizRouter getAdminBizRouter() {
+        return adminBizRouter;
+    }
+
     /**
      * 启动任务执行器
      *
@@ -63,12 +83,50 @@ public class JobExecutor {
     public void start() throws Exception {
         // 初始化日志路径
         JobLogFileAppender.initLogPath(jobPlusProperties.getExecutor().getLogPath());
+        // 初始化日志存储方式
+        JobLogFileAppender.initLogStore(jobPlusProperties.getExecutor().getLogStoreType(),
+                Math.max(jobPlusProperties.getExecutor().getLogSegmentMaxMb(), 1) * 1024L * 1024L);
+        // 任务日志大小上限
+        JobLogFileAppender.initLogBudget(jobPlusProperties.getExecutor().getLogMaxMbPerTrigger() * 1024L * 1024L,
+                jobPlusProperties.getExecutor().getLogMaxMbPerJob() * 1024L * 1024L);
+        // 任务日志是否记录调用位置
+        JobPlusHelper.setLogCallerLocation(jobPlusProperties.getExecutor().isLogCallerLocation());
+        // 启动异步日志写入线程
+        if (jobPlusProperties.getExecutor().isLogAsync()) {
+            JobLogAsyncWriter.getInstance().start(jobPlusProperties.getExecutor().getLogAsyncQueueCapacity(),
+                    jobPlusProperties.getExecutor().getLogAsyncMaxOpenFiles(),
+                    jobPlusProperties.getExecutor().getLogAsyncFlushIntervalMillis());
+        }
+        // 初始化任务线程工厂（平台线程/虚拟线程）
+        JobThreadFactory.getInstance().init(jobPlusProperties.getExecutor().isVirtualThreadEnabled());
+        // 并行执行策略下的默认最大并行数
+        if (jobPlusProperties.getExecutor().getConcurrency() > 0) {
+            concurrency = jobPlusProperties.getExecutor().getConcurrency();
+        }
+        // 触发队列容量（单个作业及执行器整体）
+        triggerQueueCapacity = jobPlusProperties.getExecutor().getTriggerQueueCapacity();
+        JobThread.setTriggerQueueTotalCapacity(jobPlusProperties.getExecutor().getTriggerQueueTotalCapacity());
+        // 启动共享工作线程池（共享线程池引擎）
+        if (ExecutorEngine.POOL == jobPlusProperties.getExecutor().getEngine()) {
+            JobWorkerPool.getInstance().start(jobPlusProperties.getExecutor().getWorkerPoolSize());
+        }
+        // 启动任务超时看门狗
+        JobTimeoutWatchdog.getInstance().start();
         // 初始化管理员业务接口列表
         initAdminBizList(jobPlusProperties.getAdmin().getAddresses(), jobPlusProperties.getAccessToken(), jobPlusProperties.getExecutor().getTimeout());
         // 启动日志文件清理线程
-        JobLogFileCleanThread.getInstance().start(jobPlusProperties.getExecutor().getLogRetentionDays());
+        JobLogFileCleanThread.getInstance().start(jobPlusProperties.getExecutor().getLogRetentionDays(),
+                jobPlusProperties.getExecutor().getLogCompressAfterDays(),
+                jobPlusProperties.getExecutor().getLogRetentionMaxSizeMb() * 1024L * 1024L);
+        // 持久化编解码器
+        JobCodecs.setDefault(jobPlusProperties.getExecutor().getCodec());
+        JobCodecs.setJdkDecodeEnabled(jobPlusProperties.getExecutor().isCodecJdkDecodeEnabled());
         // 启动触发回调线程
-        TriggerCallbackThread.getInstance().start();
+        TriggerCallbackThread.getInstance().start(jobPlusProperties.getExecutor().getCallbackBatchSize(),
+                jobPlusProperties.getExecutor().getCallbackBatchMaxKb() * 1024L,
+                jobPlusProperties.getExecutor().getCallbackLingerMillis(),
+                jobPlusProperties.getExecutor().getCallbackMaxInFlight(),
+                jobPlusProperties.getExecutor().getCallbackQueueCapacity());
         // 初始化内嵌服务器配置
         initEmbedServer(jobPlusProperties.getExecutor().getAddress(),
                 jobPlusProperties.getExecutor().getIp(),
@@ -84,10 +142,18 @@ public class JobExecutor {
         stopEmbedServer();
         // 停止所有任务线程
         stopAllJobThreads();
+        // 停止共享工作线程池
+        JobWorkerPool.getInstance().toStop();
+        JobThreadFactory.getInstance().destroy();
+        // 停止任务超时看门狗
+        JobTimeoutWatchdog.getInstance().toStop();
         // 停止日志文件清理线程
         JobLogFileCleanThread.getInstance().toStop();
         // 停止触发回调线程
         TriggerCallbackThread.getInstance().toStop();
+        // 停止异步日志写入线程（回调日志写完之后）
+        JobLogAsyncWriter.getInstance().toStop();
+        JobLogFileAppender.closeLogStore();
     }
 
     public static AbstractJobHandler registerJobHandler(String name, AbstractJobHandler jobHandler) {
@@ -96,7 +162,8 @@ public class JobExecutor {
     }
 
     public static JobThread registerJobHandler(int jobId, AbstractJobHandler handler, String removeOldReason){
-        JobThread newJobThread = new JobThread(jobId, handler);
+        int jobConcurrency = handler.getConcurrency() > 0 ? handler.getConcurrency() : concurrency;
+        JobThread newJobThread = new JobThread(jobId, handler, jobConcurrency, triggerQueueCapacity);
         newJobThread.start();
         log.info(">>>>>>>>>>> xxl-job regist JobThread success, jobId:{}, handler:{}", new Object[]{jobId, handler});
 
@@ -157,7 +224,7 @@ public class JobExecutor {
                 throw new RuntimeException("xxl-job method-job handler destroyMethod invalid, for[" + clazz + "#" + methodName + "] .");
             }
         }
-        registerJobHandler(name, new MethodJobHandler(bean, executeMethod, initMethod, destroyMethod));
+        registerJobHandler(name, new MethodJobHandler(bean, executeMethod, initMethod, destroyMethod, xxlJob.concurrency()));
     }
 
     /**
@@ -214,6 +281,7 @@ public class JobExecutor {
                     adminList.add(adminBiz);
                 }
             }
+            adminBizRouter = new AdminBizRouter(adminList);
         }
     }
 
@@ -0,0 +1,55 @@
+package com.ccexid.core.handler;
+
+import com.ccexid.core.context.JobPlusContext;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量作业处理器抽象类，适用于高频触发的作业。
+ * 同一作业排队中的多个串行触发会被合并为一批交给 {@link #executeBatch(List)} 处理，
+ * 每个触发仍拥有独立的上下文、执行日志与回调结果。
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public abstract class AbstractBatchJobHandler extends AbstractJobHandler {
+
+    /**
+     * 批量执行作业。
+     * 每个触发的结果通过对应上下文的 handleCode / handleMsg 设置，默认成功；抛出异常时整批失败。
+     * 执行期间线程上下文为空，需要写入某个触发的执行日志时，先调用 {@link JobPlusContext#setJobContext(JobPlusContext)}。
+     *
+     * @param contexts 本批触发的上下文，按触发顺序排列
+     * @throws Exception 当作业执行过程中发生错误时抛出异常
+     */
+    public abstract void executeBatch(List<JobPlusContext> contexts) throws Exception;
+
+    /**
+     * 单个触发执行（并行执行策略等不合并的场景），按只有一个触发的批次处理
+     *
+     * @throws Exception 当作业执行过程中发生错误时抛出异常
+     */
+    @Override
+    public void execute() throws Exception {
+        executeBatch(Collections.singletonList(JobPlusContext.getInstance()));
+    }
+
+    /**
+     * 获取单批最大触发数
+     *
+     * @return 单批最大触发数
+     */
+    public int getBatchSize() {
+        return 100;
+    }
+
+    /**
+     * 获取凑批等待时长，队列中触发不足一批时最多等待该时长，期间作业线程不执行其他触发
+     *
+     * @return 等待时长（毫秒），0表示只合并已排队的触发
+     */
+    public long getBatchLingerMillis() {
+        return 0L;
+    }
+}
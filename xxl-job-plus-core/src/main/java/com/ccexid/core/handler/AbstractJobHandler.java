@@ -1,5 +1,7 @@
 package com.ccexid.core.handler;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * 抽象作业处理器类实现了作业处理器接口，用于定义作业处理器的抽象基类。
  * 该类要求所有继承的子类必须实现execute方法来执行具体的作业逻辑。
@@ -16,5 +18,37 @@ public abstract class AbstractJobHandler implements IJobHandler {
      * @throws Exception 当作业执行过程中发生错误时抛出异常
      */
     public abstract void execute() throws Exception;
+
+    /**
+     * 是否为异步作业处理器。
+     * 异步作业处理器通过 {@link #executeAsync()} 执行，作业线程在发起执行后立即释放，结果在返回的 CompletionStage 完成时回调。
+     *
+     * @return true表示异步执行
+     */
+    public boolean isAsync() {
+        return false;
+    }
+
+    /**
+     * 异步执行作业。
+     * 返回值完成时的结果作为执行结果：值为 ResponseEntity 时取其 code / msg，其他非空值作为处理消息；异常完成时作业失败。
+     * 返回null表示已同步执行完成。
+     *
+     * @return 执行结果
+     * @throws Exception 当作业发起执行过程中发生错误时抛出异常
+     */
+    public CompletionStage<?> executeAsync() throws Exception {
+        execute();
+        return null;
+    }
+
+    /**
+     * 获取并行执行策略下的最大并行数
+     *
+     * @return 最大并行数，小于等于0表示使用执行器配置
+     */
+    public int getConcurrency() {
+        return 0;
+    }
 }
 
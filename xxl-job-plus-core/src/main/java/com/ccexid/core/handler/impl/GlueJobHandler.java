@@ -3,6 +3,8 @@ package com.ccexid.core.handler.impl;
 import com.ccexid.core.context.JobPlusHelper;
 import com.ccexid.core.handler.AbstractJobHandler;
 
+import java.util.concurrent.CompletionStage;
+
 public class GlueJobHandler extends AbstractJobHandler {
 
     private final long glueUpdateTime;
@@ -23,6 +25,22 @@ public class GlueJobHandler extends AbstractJobHandler {
         jobHandler.execute();
     }
 
+    @Override
+    public boolean isAsync() {
+        return jobHandler.isAsync();
+    }
+
+    @Override
+    public CompletionStage<?> executeAsync() throws Exception {
+        JobPlusHelper.log("----------- glue.version:{} -----------", glueUpdateTime);
+        return jobHandler.executeAsync();
+    }
+
+    @Override
+    public int getConcurrency() {
+        return jobHandler.getConcurrency();
+    }
+
     @Override
     public void init() throws Exception {
         this.jobHandler.init();
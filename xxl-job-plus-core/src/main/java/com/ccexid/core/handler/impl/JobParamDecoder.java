@@ -0,0 +1,154 @@
+package com.ccexid.core.handler.impl;
+
+import com.ccexid.core.util.GsonTool;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 作业参数解码器
+ * 将触发参数字符串解码为 @XxlJob 方法声明的参数类型，解码方式按参数类型预先确定：
+ * 字符串原样传入，基本类型及其包装类、枚举直接解析，其他类型（Map、POJO、集合等）按泛型类型进行JSON反序列化。
+ * <p>
+ * 相同的参数字符串只解码一次，解码结果在触发之间共享，作业方法不应修改参数对象
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public class JobParamDecoder {
+
+    private final Type type;
+    private final Class<?> rawType;
+    private final Function<String, Object> parser;
+
+    private volatile Memo memo;
+
+    private JobParamDecoder(Type type) {
+        this.type = type;
+        this.rawType = rawTypeOf(type);
+        this.parser = buildParser(type, rawType);
+    }
+
+    /**
+     * 创建参数解码器
+     *
+     * @param type 参数的泛型类型
+     * @return 参数解码器
+     */
+    public static JobParamDecoder of(Type type) {
+        return new JobParamDecoder(type);
+    }
+
+    /**
+     * 解码参数，与上次参数相同时直接返回上次的解码结果
+     *
+     * @param param 触发参数
+     * @return 解码结果，参数为空时引用类型返回null、基本类型返回零值
+     * @throws IllegalArgumentException 参数无法解码为目标类型
+     */
+    public Object decode(String param) {
+        Memo current = memo;
+        if (current != null && Objects.equals(current.param, param)) {
+            return current.value;
+        }
+        Object value;
+        if (StringUtils.isBlank(param) && rawType != String.class) {
+            value = defaultValue(rawType);
+        } else {
+            try {
+                value = parser.apply(param);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("xxl-job job param decode fail, type:" + type.getTypeName() + ", param:" + param, e);
+            }
+        }
+        memo = new Memo(param, value);
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> buildParser(Type type, Class<?> rawType) {
+        if (rawType == String.class || rawType == CharSequence.class || rawType == Object.class) {
+            return param -> param;
+        }
+        if (rawType == int.class || rawType == Integer.class) {
+            return param -> Integer.valueOf(param.trim());
+        }
+        if (rawType == long.class || rawType == Long.class) {
+            return param -> Long.valueOf(param.trim());
+        }
+        if (rawType == boolean.class || rawType == Boolean.class) {
+            return param -> Boolean.valueOf(param.trim());
+        }
+        if (rawType == double.class || rawType == Double.class) {
+            return param -> Double.valueOf(param.trim());
+        }
+        if (rawType == float.class || rawType == Float.class) {
+            return param -> Float.valueOf(param.trim());
+        }
+        if (rawType == short.class || rawType == Short.class) {
+            return param -> Short.valueOf(param.trim());
+        }
+        if (rawType == byte.class || rawType == Byte.class) {
+            return param -> Byte.valueOf(param.trim());
+        }
+        if (rawType == char.class || rawType == Character.class) {
+            return param -> param.charAt(0);
+        }
+        if (rawType.isEnum()) {
+            return param -> Enum.valueOf((Class<? extends Enum>) rawType, param.trim());
+        }
+        return param -> GsonTool.fromJson(param, type);
+    }
+
+    private static Class<?> rawTypeOf(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        // type variable, wildcard or generic array
+        return Object.class;
+    }
+
+    private static Object defaultValue(Class<?> rawType) {
+        if (!rawType.isPrimitive()) {
+            return null;
+        }
+        if (rawType == boolean.class) {
+            return false;
+        }
+        if (rawType == char.class) {
+            return (char) 0;
+        }
+        if (rawType == long.class) {
+            return 0L;
+        }
+        if (rawType == double.class) {
+            return 0D;
+        }
+        if (rawType == float.class) {
+            return 0F;
+        }
+        if (rawType == short.class) {
+            return (short) 0;
+        }
+        if (rawType == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    private static final class Memo {
+        private final String param;
+        private final Object value;
+
+        private Memo(String param, Object value) {
+            this.param = param;
+            this.value = value;
+        }
+    }
+}
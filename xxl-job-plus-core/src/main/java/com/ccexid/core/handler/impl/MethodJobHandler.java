@@ -1,11 +1,21 @@
 package com.ccexid.core.handler.impl;
 
+import com.ccexid.core.context.JobPlusHelper;
 import com.ccexid.core.handler.AbstractJobHandler;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.CompletionStage;
 
 /**
- * 方法作业处理器，用于通过反射调用目标方法执行作业
+ * 方法作业处理器，用于调用目标方法执行作业
+ * <p>
+ * 目标方法在构造时绑定为 MethodHandle（已绑定目标对象与其余参数的默认值），执行时不再经过反射；
+ * 方法的第一个参数接收按其声明类型解码后的触发参数，见 {@link JobParamDecoder}
  *
  * @author xuxueli 2019-12-11 21:12:18
  */
@@ -15,35 +25,128 @@ public class MethodJobHandler extends AbstractJobHandler {
     private final Method method;
     private final Method initMethod;
     private final Method destroyMethod;
+    private final int concurrency;
+    private final boolean async;
+
+    private final MethodHandle executeInvoker;
+    private final JobParamDecoder paramDecoder;
+    private final MethodHandle initInvoker;
+    private final MethodHandle destroyInvoker;
 
     public MethodJobHandler(Object target, Method method, Method initMethod, Method destroyMethod) {
+        this(target, method, initMethod, destroyMethod, 0);
+    }
+
+    public MethodJobHandler(Object target, Method method, Method initMethod, Method destroyMethod, int concurrency) {
         this.target = target;
         this.method = method;
         this.initMethod = initMethod;
         this.destroyMethod = destroyMethod;
+        this.concurrency = concurrency;
+        // CompletableFuture / CompletionStage returning method
+        this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+
+        this.executeInvoker = bind(target, method, true);
+        this.paramDecoder = method.getParameterCount() > 0 ? JobParamDecoder.of(method.getGenericParameterTypes()[0]) : null;
+        this.initInvoker = initMethod != null ? bind(target, initMethod, false) : null;
+        this.destroyInvoker = destroyMethod != null ? bind(target, destroyMethod, false) : null;
     }
 
     @Override
     public void execute() throws Exception {
-        Class<?>[] parameterTypes = method.getParameterTypes();
-        if (parameterTypes.length > 0) {
-            method.invoke(target, new Object[parameterTypes.length]);
-        } else {
-            method.invoke(target);
+        Object result = invokeExecute();
+        if (async && result != null) {
+            // called synchronously, wait for completion
+            ((CompletionStage<?>) result).toCompletableFuture().get();
         }
     }
 
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public CompletionStage<?> executeAsync() throws Exception {
+        Object result = invokeExecute();
+        return async ? (CompletionStage<?>) result : null;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
     @Override
     public void init() throws Exception {
-        if (initMethod != null) {
-            initMethod.invoke(target);
+        if (initInvoker != null) {
+            invoke(initInvoker);
         }
     }
 
     @Override
     public void destroy() throws Exception {
-        if (destroyMethod != null) {
-            destroyMethod.invoke(target);
+        if (destroyInvoker != null) {
+            invoke(destroyInvoker);
+        }
+    }
+
+    private Object invokeExecute() throws Exception {
+        Object param = paramDecoder != null ? paramDecoder.decode(JobPlusHelper.getJobParam()) : null;
+        try {
+            return (Object) executeInvoker.invokeExact(param);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 将方法绑定为调用器
+     * 实例方法绑定目标对象，方法参数绑定为默认值（引用类型为null，基本类型为零值）；
+     * 保留第一个参数时调用器形式为 (Object)Object，否则为 ()Object
+     *
+     * @param target     目标对象
+     * @param method     目标方法
+     * @param keepFirst  是否保留第一个参数由调用方传入
+     * @return 调用器
+     */
+    private static MethodHandle bind(Object target, Method method, boolean keepFirst) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(target);
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            int from = keepFirst ? 1 : 0;
+            if (parameterTypes.length > from) {
+                Object[] defaultArgs = new Object[parameterTypes.length - from];
+                for (int i = from; i < parameterTypes.length; i++) {
+                    defaultArgs[i - from] = parameterTypes[i].isPrimitive() ? Array.get(Array.newInstance(parameterTypes[i], 1), 0) : null;
+                }
+                handle = MethodHandles.insertArguments(handle, from, defaultArgs);
+            }
+            if (!keepFirst) {
+                return handle.asType(MethodType.methodType(Object.class));
+            }
+            if (parameterTypes.length == 0) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new RuntimeException("xxl-job method-job handler bind fail, for[" + method.getDeclaringClass() + "#" + method.getName() + "] .", e);
+        }
+    }
+
+    private static Object invoke(MethodHandle invoker) throws Exception {
+        try {
+            return (Object) invoker.invokeExact();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -9,6 +9,7 @@ import com.ccexid.core.util.ScriptUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -90,7 +91,12 @@ public class ScriptJobHandler extends AbstractJobHandler {
 
         // 执行脚本
         JobPlusHelper.log("----------- script file: {} -----------", scriptFileName);
-        int exitValue = ScriptUtil.execToFile(cmd, scriptFileName, logFileName, scriptParams);
+        // 脚本输出直接追加到任务日志，先落盘已写入的日志
+        JobLogFileAppender.flush(logFileName);
+        int exitValue;
+        try (OutputStream logOutputStream = JobLogFileAppender.openAppender(logFileName)) {
+            exitValue = ScriptUtil.execToStream(cmd, scriptFileName, logOutputStream, scriptParams);
+        }
 
         // 处理执行结果
         handleExecutionResult(exitValue);
@@ -0,0 +1,284 @@
+package com.ccexid.core.log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 可按块定位的gzip格式
+ * 内容按固定大小分块，每块压缩为一个独立的gzip成员，文件末尾追加一个空成员，在其扩展字段中记录各块的压缩偏移；
+ * 整个文件仍是合法的多成员gzip文件（可直接用 gzip -d 解压），读取时只解压所需的块
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+final class BlockGzip {
+
+    static final String SUFFIX = ".gz";
+
+    private static final int MIN_BLOCK_SIZE = 64 * 1024;
+    /**
+     * 扩展字段最多记录的块数（每块8字节偏移，扩展字段不超过65535字节）
+     */
+    private static final int MAX_BLOCKS = 8000;
+    private static final int MAGIC = 0x584a475a;
+    private static final byte[] MEMBER_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int FOOTER_BYTES = 4 + 4 + 2 + 8;
+
+    private BlockGzip() {
+    }
+
+    /**
+     * 压缩文件
+     *
+     * @param src 源文件
+     * @param dst 目标文件
+     * @throws IOException 读写失败
+     */
+    static void compress(File src, File dst) throws IOException {
+        long length = src.length();
+        int blockSize = MIN_BLOCK_SIZE;
+        while ((length + blockSize - 1) / blockSize > MAX_BLOCKS) {
+            blockSize <<= 1;
+        }
+        int blocks = (int) ((length + blockSize - 1) / blockSize);
+        long[] offsets = new long[blocks + 1];
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (InputStream in = new FileInputStream(src);
+             CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(dst)))) {
+            byte[] block = new byte[blockSize];
+            byte[] compressed = new byte[blockSize + blockSize / 8 + 64];
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < blocks; i++) {
+                int read = readFully(in, block);
+                offsets[i] = out.count;
+                deflater.reset();
+                deflater.setInput(block, 0, read);
+                deflater.finish();
+                out.write(MEMBER_HEADER);
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(compressed);
+                    out.write(compressed, 0, n);
+                }
+                crc.reset();
+                crc.update(block, 0, read);
+                writeIntLe(out, (int) crc.getValue());
+                writeIntLe(out, read);
+            }
+            offsets[blocks] = out.count;
+
+            // index member: empty content, block index in the extra field
+            ByteBuffer payload = ByteBuffer.allocate(4 + 8 + 4 + offsets.length * 8 + 4 + 4);
+            payload.putInt(blockSize).putLong(length).putInt(offsets.length);
+            for (long offset : offsets) {
+                payload.putLong(offset);
+            }
+            int payloadLength = payload.position();
+            payload.putInt(payloadLength).putInt(MAGIC);
+            int xlen = 4 + payload.capacity();
+            out.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff});
+            writeShortLe(out, xlen);
+            out.write('X');
+            out.write('J');
+            writeShortLe(out, payload.capacity());
+            out.write(payload.array());
+            // empty deflate block, crc32=0, isize=0
+            out.write(new byte[]{3, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 打开压缩文件用于按位置读取
+     *
+     * @param file 压缩文件
+     * @return 数据源
+     * @throws IOException 文件格式不正确或读取失败
+     */
+    static Source open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long fileLength = channel.size();
+            if (fileLength < FOOTER_BYTES) {
+                throw new IOException("invalid block gzip file: " + file.getPath());
+            }
+            ByteBuffer footer = readAt(channel, fileLength - FOOTER_BYTES, FOOTER_BYTES);
+            int payloadLength = footer.getInt();
+            if (footer.getInt() != MAGIC || payloadLength <= 0 || payloadLength > fileLength - FOOTER_BYTES) {
+                throw new IOException("invalid block gzip file: " + file.getPath());
+            }
+            ByteBuffer payload = readAt(channel, fileLength - FOOTER_BYTES - payloadLength, payloadLength);
+            int blockSize = payload.getInt();
+            long length = payload.getLong();
+            long[] offsets = new long[payload.getInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = payload.getLong();
+            }
+            return new Source(channel, blockSize, length, offsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 压缩文件的解压内容，缓存最近解压的块
+     */
+    static final class Source implements JobLogSource {
+        private final FileChannel channel;
+        private final int blockSize;
+        private final long length;
+        private final long[] offsets;
+        private final Inflater inflater = new Inflater(true);
+
+        private int cachedBlock = -1;
+        private byte[] cached;
+        private int cachedLength;
+
+        private Source(FileChannel channel, int blockSize, long length, long[] offsets) {
+            this.channel = channel;
+            this.blockSize = blockSize;
+            this.length = length;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public long size() {
+            return length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (position >= length) {
+                return -1;
+            }
+            int total = 0;
+            while (dst.hasRemaining() && position < length) {
+                int block = (int) (position / blockSize);
+                loadBlock(block);
+                int inBlock = (int) (position - (long) block * blockSize);
+                int count = Math.min(dst.remaining(), cachedLength - inBlock);
+                if (count <= 0) {
+                    break;
+                }
+                dst.put(cached, inBlock, count);
+                total += count;
+                position += count;
+            }
+            return total;
+        }
+
+        private void loadBlock(int block) throws IOException {
+            if (block == cachedBlock) {
+                return;
+            }
+            int memberLength = (int) (offsets[block + 1] - offsets[block]);
+            ByteBuffer member = readAt(channel, offsets[block], memberLength);
+            if (cached == null) {
+                cached = new byte[blockSize];
+            }
+            inflater.reset();
+            inflater.setInput(member.array(), MEMBER_HEADER.length, memberLength - MEMBER_HEADER.length - 8);
+            try {
+                int n = 0;
+                while (n < cached.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(cached, n, cached.length - n);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += inflated;
+                }
+                cachedLength = n;
+                cachedBlock = block;
+            } catch (DataFormatException e) {
+                cachedBlock = -1;
+                throw new IOException("corrupt block gzip member, block:" + block, e);
+            }
+        }
+
+        @Override
+        public File indexFile() {
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of block gzip file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int n = 0;
+        while (n < buffer.length) {
+            int read = in.read(buffer, n, buffer.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        return n;
+    }
+
+    private static void writeIntLe(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeShortLe(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ccexid.core.log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 单文件日志存储，每次触发一个日志文件
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+final class FileJobLogStore implements JobLogStore {
+
+    static final String INDEX_SUFFIX = ".idx";
+    private static final String LOG_SUFFIX = ".log";
+
+    @Override
+    public OutputStream openAppender(String logFileName) throws IOException {
+        File logFile = new File(logFileName);
+        File parentDir = logFile.getParentFile();
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs() && !parentDir.exists()) {
+            throw new IOException("创建日志文件父目录失败: " + parentDir.getPath());
+        }
+        return new FileOutputStream(logFile, true);
+    }
+
+    @Override
+    public JobLogSource openSource(String logFileName) throws IOException {
+        File logFile = new File(logFileName);
+        if (!logFile.exists()) {
+            // compressed by the log clean thread
+            File compressedFile = new File(logFileName + BlockGzip.SUFFIX);
+            return compressedFile.exists() ? BlockGzip.open(compressedFile) : null;
+        }
+        return open(logFile);
+    }
+
+    /**
+     * 打开文件用于按位置读取
+     *
+     * @param file 文件
+     * @return 数据源
+     * @throws IOException 打开失败
+     */
+    static JobLogSource open(File file) throws IOException {
+        return new FileSource(file, FileChannel.open(file.toPath(), StandardOpenOption.READ));
+    }
+
+    @Override
+    public List<LogRef> listLogs(File dayDir) {
+        String[] names = dayDir.list();
+        if (names == null) {
+            return new ArrayList<>();
+        }
+        // plain and compressed logs
+        TreeSet<Long> logIds = new TreeSet<>();
+        for (String name : names) {
+            String logName = name.endsWith(BlockGzip.SUFFIX) ? name.substring(0, name.length() - BlockGzip.SUFFIX.length()) : name;
+            if (!logName.endsWith(LOG_SUFFIX)) {
+                continue;
+            }
+            try {
+                logIds.add(Long.parseLong(logName.substring(0, logName.length() - LOG_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                // not a job log
+            }
+        }
+        List<LogRef> logs = new ArrayList<>(logIds.size());
+        for (Long logId : logIds.descendingSet()) {
+            String logFileName = new File(dayDir, logId + LOG_SUFFIX).getPath();
+            logs.add(new LogRef() {
+                @Override
+                public long logId() {
+                    return logId;
+                }
+
+                @Override
+                public JobLogSource open() throws IOException {
+                    return openSource(logFileName);
+                }
+            });
+        }
+        return logs;
+    }
+
+    @Override
+    public void close() {
+        // nothing held open
+    }
+
+    private static final class FileSource implements JobLogSource {
+        private final File logFile;
+        private final FileChannel channel;
+
+        private FileSource(File logFile, FileChannel channel) {
+            this.logFile = logFile;
+            this.channel = channel;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public File indexFile() {
+            return new File(logFile.getPath() + INDEX_SUFFIX);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
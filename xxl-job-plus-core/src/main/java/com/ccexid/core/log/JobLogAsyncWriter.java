@@ -0,0 +1,328 @@
+package com.ccexid.core.log;
+
+import com.ccexid.core.thread.IThread;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务日志异步写入线程
+ * 日志行先进入有界队列，由单个写入线程批量写入按日志文件缓存的输出流（见 {@link JobLogStore}）；输出流以LRU方式保留最近使用的文件，
+ * 缓冲区写满或到达刷新间隔时落盘，任务结束或读取日志时可按文件强制落盘
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public class JobLogAsyncWriter implements IThread {
+
+    private static final JobLogAsyncWriter INSTANCE = new JobLogAsyncWriter();
+
+    public static JobLogAsyncWriter getInstance() {
+        return INSTANCE;
+    }
+
+    private static final byte[] LINE_SEPARATOR = "\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DRAIN_BATCH_SIZE = 1024;
+    private static final long FLUSH_AWAIT_MILLIS = 3000L;
+
+    private int queueCapacity = 65536;
+    private int maxOpenFiles = 64;
+    private long flushIntervalMillis = 200L;
+
+    private volatile BlockingQueue<LogEntry> logQueue;
+    private Thread writerThread;
+    private volatile boolean toStop = false;
+
+    /**
+     * 写入线程持有的输出流，按访问顺序淘汰，仅在写入线程中访问
+     */
+    private final LinkedHashMap<String, OutputStream> openFiles = new LinkedHashMap<String, OutputStream>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OutputStream> eldest) {
+            if (size() > maxOpenFiles) {
+                closeQuietly(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * 启动异步写入线程
+     *
+     * @param queueCapacity       队列容量，队列满时写日志的线程等待
+     * @param maxOpenFiles        最多保持打开的日志文件数
+     * @param flushIntervalMillis 刷新间隔（毫秒）
+     */
+    public void start(int queueCapacity, int maxOpenFiles, long flushIntervalMillis) {
+        if (queueCapacity > 0) {
+            this.queueCapacity = queueCapacity;
+        }
+        if (maxOpenFiles > 0) {
+            this.maxOpenFiles = maxOpenFiles;
+        }
+        if (flushIntervalMillis > 0) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+        start();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (logQueue != null) {
+            return;
+        }
+        toStop = false;
+        BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(queueCapacity);
+        writerThread = new Thread(() -> writeLoop(queue), "xxl-job, executor JobLogAsyncWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logQueue = queue;
+        log.info(">>>>>>>>>>> xxl-job, executor JobLogAsyncWriter start, queueCapacity:{}, maxOpenFiles:{}, flushIntervalMillis:{}",
+                queueCapacity, maxOpenFiles, flushIntervalMillis);
+    }
+
+    @Override
+    public synchronized void toStop() {
+        BlockingQueue<LogEntry> queue = logQueue;
+        if (queue == null) {
+            return;
+        }
+        // new lines are written synchronously from now on, the writer drains what is already queued
+        logQueue = null;
+        toStop = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // lines enqueued while stopping
+        LogEntry entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry.line != null) {
+                JobLogFileAppender.appendLogSync(entry.logFileName, entry.line);
+            } else {
+                entry.flushed.countDown();
+            }
+        }
+        log.info(">>>>>>>>>>> xxl-job, executor JobLogAsyncWriter destroy.");
+    }
+
+    /**
+     * 是否已启动
+     *
+     * @return true表示异步写入
+     */
+    public boolean isStarted() {
+        return logQueue != null;
+    }
+
+    /**
+     * 追加一行日志
+     *
+     * @param logFileName 日志文件名
+     * @param line        日志内容，不含换行符
+     * @return false表示未启动，需同步写入
+     */
+    public boolean append(String logFileName, String line) {
+        return enqueue(new LogEntry(logFileName, line, null, false));
+    }
+
+    /**
+     * 将指定文件已入队的日志落盘
+     *
+     * @param logFileName 日志文件名
+     * @param close       落盘后是否关闭该文件的输出流
+     */
+    public void flush(String logFileName, boolean close) {
+        LogEntry marker = new LogEntry(logFileName, null, new CountDownLatch(1), close);
+        if (!enqueue(marker)) {
+            return;
+        }
+        // killed or stopped job threads flush with the interrupt flag set, wait anyway and restore it afterwards
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_AWAIT_MILLIS);
+        boolean flushed = false;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    flushed = marker.flushed.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!flushed) {
+            log.warn(">>>>>>>>>>> xxl-job, JobLogAsyncWriter flush timeout, logFileName:{}", logFileName);
+        }
+    }
+
+    /**
+     * 获取队列中等待写入的日志数
+     *
+     * @return 队列深度
+     */
+    public int getQueueSize() {
+        BlockingQueue<LogEntry> queue = logQueue;
+        return queue != null ? queue.size() : 0;
+    }
+
+    private boolean enqueue(LogEntry entry) {
+        BlockingQueue<LogEntry> queue;
+        boolean interrupted = false;
+        try {
+            while ((queue = logQueue) != null) {
+                if (queue.offer(entry)) {
+                    return true;
+                }
+                try {
+                    // queue full: back-pressure the logging thread, even an interrupted one,
+                    // falling back to a sync write would put its lines ahead of the queued ones
+                    if (queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeLoop(BlockingQueue<LogEntry> queue) {
+        List<LogEntry> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        long lastFlushTime = System.currentTimeMillis();
+        while (!toStop || !queue.isEmpty()) {
+            try {
+                LogEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                    for (LogEntry entry : batch) {
+                        write(entry);
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                if (!toStop) {
+                    log.warn(">>>>>>>>>>> xxl-job, JobLogAsyncWriter interrupted.");
+                }
+            } catch (Throwable e) {
+                log.error(">>>>>>>>>>> xxl-job, JobLogAsyncWriter error.", e);
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastFlushTime >= flushIntervalMillis) {
+                flushAll();
+                lastFlushTime = now;
+            }
+        }
+
+        for (Map.Entry<String, OutputStream> item : openFiles.entrySet()) {
+            closeQuietly(item.getKey(), item.getValue());
+        }
+        openFiles.clear();
+    }
+
+    private void write(LogEntry entry) {
+        if (entry.line == null) {
+            // flush marker
+            OutputStream out = entry.close ? openFiles.remove(entry.logFileName) : openFiles.get(entry.logFileName);
+            if (out != null) {
+                if (entry.close) {
+                    closeQuietly(entry.logFileName, out);
+                } else {
+                    flushQuietly(entry.logFileName, out);
+                }
+            }
+            entry.flushed.countDown();
+            return;
+        }
+
+        OutputStream out = openFiles.get(entry.logFileName);
+        try {
+            if (out == null) {
+                out = open(entry.logFileName);
+                openFiles.put(entry.logFileName, out);
+            }
+            out.write(entry.line.getBytes(StandardCharsets.UTF_8));
+            out.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            log.error("写入日志文件异常: {}", entry.logFileName, e);
+            if (out != null) {
+                openFiles.remove(entry.logFileName);
+                closeQuietly(entry.logFileName, out);
+            }
+        }
+    }
+
+    private OutputStream open(String logFileName) throws IOException {
+        return new BufferedOutputStream(JobLogFileAppender.openStoreAppender(logFileName), BUFFER_SIZE);
+    }
+
+    private void flushAll() {
+        Iterator<Map.Entry<String, OutputStream>> iterator = openFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, OutputStream> item = iterator.next();
+            if (!flushQuietly(item.getKey(), item.getValue())) {
+                iterator.remove();
+                closeQuietly(item.getKey(), item.getValue());
+            }
+        }
+    }
+
+    private static boolean flushQuietly(String logFileName, OutputStream out) {
+        try {
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            log.error("写入日志文件异常: {}", logFileName, e);
+            return false;
+        }
+    }
+
+    private static void closeQuietly(String logFileName, OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.error("关闭日志文件异常: {}", logFileName, e);
+        }
+    }
+
+    private static final class LogEntry {
+        private final String logFileName;
+        private final String line;
+        private final CountDownLatch flushed;
+        private final boolean close;
+
+        private LogEntry(String logFileName, String line, CountDownLatch flushed, boolean close) {
+            this.logFileName = logFileName;
+            this.line = line;
+            this.flushed = flushed;
+            this.close = close;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.ccexid.core.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单次触发的日志字节预算
+ * 未超出预算时日志直接写入（头部）；超出后不再写入文件，后续内容进入固定大小的环形缓冲区（滚动尾部），
+ * 任务结束时写入截断标记行及保留的尾部内容
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+final class JobLogBudget {
+
+    /**
+     * 尾部缓冲区上限，避免预算较大时占用过多内存
+     */
+    private static final int MAX_TAIL_BYTES = 1024 * 1024;
+
+    static final int ADMIT_HEAD = 0;
+    static final int ADMIT_TAIL = 1;
+    /**
+     * 首次进入尾部，调用方需写入提示行
+     */
+    static final int ADMIT_TAIL_FIRST = 2;
+
+    private final long limitBytes;
+    private final long headLimit;
+    private final int tailLimit;
+    private final JobUsage jobUsage;
+    private final LongAdder totalDroppedBytes;
+
+    private long headBytes;
+    private boolean headClosed;
+    private boolean noticePending;
+    private byte[] tail;
+    private int tailStart;
+    private int tailSize;
+    private long droppedBytes;
+
+    /**
+     * @param limitBytes        本次触发的字节预算
+     * @param jobUsage          所属作业当天的日志用量
+     * @param totalDroppedBytes 全局丢弃字节数计数
+     */
+    JobLogBudget(long limitBytes, JobUsage jobUsage, LongAdder totalDroppedBytes) {
+        this.limitBytes = limitBytes;
+        this.tailLimit = (int) Math.min(limitBytes / 4, MAX_TAIL_BYTES);
+        this.headLimit = limitBytes - tailLimit;
+        this.jobUsage = jobUsage;
+        this.totalDroppedBytes = totalDroppedBytes;
+    }
+
+    long getLimitBytes() {
+        return limitBytes;
+    }
+
+    /**
+     * 登记一行日志（写入时追加 "\r\n"）
+     *
+     * @param line 日志内容
+     * @return {@link #ADMIT_HEAD} 直接写入；{@link #ADMIT_TAIL} 已进入尾部缓冲区；{@link #ADMIT_TAIL_FIRST} 同上且为首次
+     */
+    synchronized int admitLine(String line) {
+        long bytes = utf8Length(line) + 2;
+        if (!headClosed && headBytes + bytes <= headLimit) {
+            addHead(bytes);
+            return ADMIT_HEAD;
+        }
+        closeHead();
+        byte[] encoded = (line + "\r\n").getBytes(StandardCharsets.UTF_8);
+        appendTail(encoded, 0, encoded.length);
+        return takeNotice() ? ADMIT_TAIL_FIRST : ADMIT_TAIL;
+    }
+
+    /**
+     * 登记一段输出（脚本输出等字节流），头部在最后一个完整行处截止，其余进入尾部缓冲区
+     *
+     * @return 可直接写入的前缀字节数
+     */
+    synchronized int admitBytes(byte[] b, int off, int len) {
+        if (!headClosed) {
+            long allowed = headLimit - headBytes;
+            if (len <= allowed) {
+                addHead(len);
+                return len;
+            }
+            int head = 0;
+            for (int i = (int) allowed - 1; i >= 0; i--) {
+                if (b[off + i] == '\n') {
+                    head = i + 1;
+                    break;
+                }
+            }
+            addHead(head);
+            closeHead();
+            appendTail(b, off + head, len - head);
+            return head;
+        }
+        appendTail(b, off, len);
+        return 0;
+    }
+
+    /**
+     * 是否需要写入进入尾部的提示行（只返回一次true）
+     */
+    synchronized boolean takeNotice() {
+        boolean notice = noticePending;
+        noticePending = false;
+        return notice;
+    }
+
+    /**
+     * 结束预算，返回需追加到日志末尾的内容：截断标记行及保留的尾部（从完整行开始）
+     *
+     * @return 追加内容（不含结尾换行），未进入尾部时为null
+     */
+    synchronized String finish() {
+        if (!headClosed) {
+            return null;
+        }
+        byte[] bytes = new byte[tailSize];
+        int first = Math.min(tailSize, tail.length - tailStart);
+        System.arraycopy(tail, tailStart, bytes, 0, first);
+        System.arraycopy(tail, 0, bytes, first, tailSize - first);
+
+        int start = 0;
+        if (droppedBytes > 0) {
+            // skip the partial line left by the rolling window
+            while (start < bytes.length && bytes[start] != '\n') {
+                start++;
+            }
+            start = Math.min(start + 1, bytes.length);
+            drop(start);
+        }
+        int end = bytes.length;
+        while (end > start && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        jobUsage.bytes.addAndGet(end - start);
+
+        StringBuilder sb = new StringBuilder(end - start + 128);
+        if (droppedBytes > 0) {
+            sb.append("----------- xxl-job log truncated, dropped ").append(droppedBytes)
+                    .append(" bytes, limit ").append(limitBytes).append(" bytes -----------");
+            if (end > start) {
+                sb.append("\r\n");
+            }
+        }
+        sb.append(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+        tail = null;
+        return sb.toString();
+    }
+
+    private void addHead(long bytes) {
+        headBytes += bytes;
+        jobUsage.bytes.addAndGet(bytes);
+    }
+
+    private void closeHead() {
+        if (!headClosed) {
+            headClosed = true;
+            noticePending = true;
+            tail = new byte[Math.max(tailLimit, 1)];
+        }
+    }
+
+    private void appendTail(byte[] b, int off, int len) {
+        if (len > tail.length) {
+            drop(len - tail.length);
+            off += len - tail.length;
+            len = tail.length;
+        }
+        int overflow = tailSize + len - tail.length;
+        if (overflow > 0) {
+            tailStart = (tailStart + overflow) % tail.length;
+            tailSize -= overflow;
+            drop(overflow);
+        }
+        int writePos = (tailStart + tailSize) % tail.length;
+        int first = Math.min(len, tail.length - writePos);
+        System.arraycopy(b, off, tail, writePos, first);
+        System.arraycopy(b, off + first, tail, 0, len - first);
+        tailSize += len;
+    }
+
+    private void drop(long bytes) {
+        droppedBytes += bytes;
+        jobUsage.droppedBytes.add(bytes);
+        totalDroppedBytes.add(bytes);
+    }
+
+    /**
+     * UTF-8编码后的字节数
+     */
+    static long utf8Length(String s) {
+        long bytes = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 作业当天的日志用量
+     */
+    static final class JobUsage {
+        final String day;
+        final AtomicLong bytes = new AtomicLong();
+        final LongAdder droppedBytes = new LongAdder();
+
+        JobUsage(String day) {
+            this.day = day;
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.ccexid.core.log;
 
+import com.ccexid.core.enums.JobLogStoreType;
 import com.ccexid.core.model.LogResult;
+import com.ccexid.core.model.LogSearchParam;
+import com.ccexid.core.model.LogSearchResult;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.LineIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateFormatUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 任务日志文件追加器
@@ -26,6 +35,44 @@ public class JobLogFileAppender {
     private static final String GLUE_DIR_NAME = "glue-source";
     private static String glueSrcPath = logBasePath.concat("/glue-source");
 
+    /**
+     * 单次读取日志返回的最大字节数
+     */
+    private static final int READ_MAX_BYTES = 1024 * 1024;
+    /**
+     * 按字节偏移分页读取时单页的字节数上限，低于调度中心HTTP聚合上限（5MB）
+     */
+    private static final int READ_CHUNK_MAX_BYTES = 4 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final Object[] READ_LOCKS = new Object[32];
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static volatile JobLogStore logStore = new FileJobLogStore();
+
+    /**
+     * 日志字节预算下限，作业当天预算用尽后每次触发仍保留的日志量
+     */
+    private static final long BUDGET_MIN_BYTES = 64 * 1024;
+    private static volatile long logMaxBytesPerTrigger = 0;
+    private static volatile long logMaxBytesPerJob = 0;
+    private static final Map<String, JobLogBudget> LOG_BUDGETS = new ConcurrentHashMap<>();
+    private static final Map<Long, JobLogBudget.JobUsage> JOB_USAGES = new ConcurrentHashMap<>();
+    private static final LongAdder DROPPED_BYTES = new LongAdder();
+    private static final LongAdder TRUNCATED_LOGS = new LongAdder();
+
+    /**
+     * 正在写入的日志（任务执行中）及其监听器
+     */
+    private static final Set<String> ACTIVE_LOGS = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Set<JobLogListener>> LOG_LISTENERS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < READ_LOCKS.length; i++) {
+            READ_LOCKS[i] = new Object();
+        }
+    }
+
     /**
      * 获取日志基础路径
      *
@@ -53,7 +100,7 @@ public class JobLogFileAppender {
      */
     public static void initLogPath(String logPath) {
         // init
-        if (StringUtils.isBlank(logPath)) {
+        if (StringUtils.isNotBlank(logPath)) {
             logBasePath = logPath;
         }
         // mk base dir
@@ -71,6 +118,176 @@ public class JobLogFileAppender {
         glueSrcPath = glueBaseDir.getPath();
     }
 
+    /**
+     * 初始化日志存储方式
+     *
+     * @param storeType       存储方式
+     * @param segmentMaxBytes 分段存储时单个分段文件的最大字节数
+     */
+    public static void initLogStore(JobLogStoreType storeType, long segmentMaxBytes) {
+        JobLogStore previous = logStore;
+        logStore = JobLogStoreType.SEGMENT == storeType
+                ? new SegmentJobLogStore(segmentMaxBytes)
+                : new FileJobLogStore();
+        previous.close();
+    }
+
+    /**
+     * 关闭日志存储持有的文件句柄
+     */
+    public static void closeLogStore() {
+        logStore.close();
+    }
+
+    /**
+     * 初始化日志字节预算
+     * 单次触发的日志超出预算后保留头部及滚动的尾部，中间部分丢弃并在结束时写入截断标记；
+     * 作业当天的累计日志量超出作业预算后，新的触发只保留 {@link #BUDGET_MIN_BYTES} 字节
+     *
+     * @param maxBytesPerTrigger 单次触发的日志字节数上限，小于等于0时不限制
+     * @param maxBytesPerJob     单个作业每天的日志字节数上限，小于等于0时不限制
+     */
+    public static void initLogBudget(long maxBytesPerTrigger, long maxBytesPerJob) {
+        logMaxBytesPerTrigger = Math.max(maxBytesPerTrigger, 0);
+        logMaxBytesPerJob = Math.max(maxBytesPerJob, 0);
+    }
+
+    /**
+     * 任务开始执行，登记为正在写入的日志，并按日志预算登记本次触发
+     * 作业预算在触发开始时计算，并行的多次触发可能合计略微超出作业预算
+     *
+     * @param jobId       作业ID
+     * @param logFileName 日志文件名（完整路径）
+     */
+    public static void beginLog(long jobId, String logFileName) {
+        if (StringUtils.isBlank(logFileName)) {
+            return;
+        }
+        ACTIVE_LOGS.add(logFileName);
+
+        long perTrigger = logMaxBytesPerTrigger;
+        long perJob = logMaxBytesPerJob;
+        if (perTrigger <= 0 && perJob <= 0) {
+            return;
+        }
+        // the day directory name, yyyy-MM-dd
+        String day = new File(logFileName).getParentFile().getName();
+        JobLogBudget.JobUsage usage = JOB_USAGES.compute(jobId,
+                (key, current) -> current != null && current.day.equals(day) ? current : new JobLogBudget.JobUsage(day));
+
+        long limit = perTrigger > 0 ? perTrigger : Long.MAX_VALUE;
+        if (perJob > 0) {
+            limit = Math.min(limit, Math.max(perJob - usage.bytes.get(), BUDGET_MIN_BYTES));
+        }
+        LOG_BUDGETS.put(logFileName, new JobLogBudget(Math.max(limit, BUDGET_MIN_BYTES), usage, DROPPED_BYTES));
+    }
+
+    /**
+     * 监听日志变更
+     *
+     * @param logFileName 日志文件名（完整路径）
+     * @param listener    监听器
+     * @return 日志是否仍在写入；返回false时不会再收到通知，调用方应直接读取剩余内容
+     */
+    public static boolean addListener(String logFileName, JobLogListener listener) {
+        LOG_LISTENERS.computeIfAbsent(logFileName, key -> new CopyOnWriteArraySet<>()).add(listener);
+        // registered first, so an endLog racing with this check still notifies the listener
+        if (ACTIVE_LOGS.contains(logFileName)) {
+            return true;
+        }
+        removeListener(logFileName, listener);
+        return false;
+    }
+
+    /**
+     * 取消监听日志变更
+     *
+     * @param logFileName 日志文件名（完整路径）
+     * @param listener    监听器
+     */
+    public static void removeListener(String logFileName, JobLogListener listener) {
+        LOG_LISTENERS.computeIfPresent(logFileName, (key, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    private static void notifyAppend(String logFileName) {
+        Set<JobLogListener> listeners = LOG_LISTENERS.get(logFileName);
+        if (listeners == null) {
+            return;
+        }
+        for (JobLogListener listener : listeners) {
+            try {
+                listener.onAppend();
+            } catch (Exception e) {
+                log.warn(">>>>>>>>>>> xxl-job, job log listener error: {}", logFileName, e);
+            }
+        }
+    }
+
+    private static void notifyEnd(String logFileName) {
+        Set<JobLogListener> listeners = LOG_LISTENERS.remove(logFileName);
+        if (listeners == null) {
+            return;
+        }
+        for (JobLogListener listener : listeners) {
+            try {
+                listener.onEnd();
+            } catch (Exception e) {
+                log.warn(">>>>>>>>>>> xxl-job, job log listener error: {}", logFileName, e);
+            }
+        }
+    }
+
+    /**
+     * 获取因超出日志预算而丢弃的总字节数
+     *
+     * @return 丢弃字节数
+     */
+    public static long getDroppedBytes() {
+        return DROPPED_BYTES.sum();
+    }
+
+    /**
+     * 获取作业当天因超出日志预算而丢弃的字节数
+     *
+     * @param jobId 作业ID
+     * @return 丢弃字节数
+     */
+    public static long getDroppedBytes(long jobId) {
+        JobLogBudget.JobUsage usage = JOB_USAGES.get(jobId);
+        return usage != null ? usage.droppedBytes.sum() : 0;
+    }
+
+    /**
+     * 获取超出日志预算被截断的触发次数
+     *
+     * @return 截断次数
+     */
+    public static long getTruncatedLogCount() {
+        return TRUNCATED_LOGS.sum();
+    }
+
+    /**
+     * 打开追加日志的输出流，用于脚本等外部输出直接写入任务日志
+     * 每次 write 调用的内容作为整体追加，调用方负责关闭；已登记日志预算时写入内容计入预算，写入后通知日志监听器
+     *
+     * @param logFileName 日志文件名（完整路径）
+     * @return 输出流
+     * @throws IOException 打开失败
+     */
+    public static OutputStream openAppender(String logFileName) throws IOException {
+        return new AppenderOutputStream(openStoreAppender(logFileName), logFileName, LOG_BUDGETS.get(logFileName));
+    }
+
+    /**
+     * 打开日志存储的追加输出流，不计入日志预算（已按行计入预算的日志使用）
+     */
+    static OutputStream openStoreAppender(String logFileName) throws IOException {
+        return logStore.openAppender(logFileName);
+    }
+
     /**
      * 生成日志文件名
      * 根据触发时间和日志ID生成日志文件路径，格式为: 基础路径/日期/日志ID.log
@@ -90,12 +307,12 @@ public class JobLogFileAppender {
             }
         }
 
-        return logFilePath.resolve(logId + ".log").toString();
+        return logFilePath.resolve(logId + LOG_SUFFIX).toString();
     }
 
     /**
      * 追加日志到指定文件
-     * 如果文件不存在则创建文件，如果父目录不存在则创建父目录
+     * 异步写入线程已启动时交由其批量写入，否则同步写入
      *
      * @param logFileName 日志文件名（完整路径）
      * @param appendLog   要追加的日志内容
@@ -104,29 +321,123 @@ public class JobLogFileAppender {
         if (StringUtils.isBlank(logFileName)) {
             return;
         }
-        File logFile = new File(logFileName);
-
-        File parentDir = logFile.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            if (!parentDir.mkdirs()) {
-                log.error("创建日志文件父目录失败: {}", parentDir.getPath());
+        if (appendLog == null) {
+            appendLog = "";
+        }
+        JobLogBudget budget = LOG_BUDGETS.get(logFileName);
+        if (budget != null) {
+            int admit = budget.admitLine(appendLog);
+            if (admit == JobLogBudget.ADMIT_TAIL) {
                 return;
             }
+            if (admit == JobLogBudget.ADMIT_TAIL_FIRST) {
+                TRUNCATED_LOGS.increment();
+                appendLog = truncateNotice(budget);
+            }
         }
+        writeLog(logFileName, appendLog);
+        notifyAppend(logFileName);
+    }
 
-        if (appendLog == null) {
-            appendLog = "";
+    private static void writeLog(String logFileName, String appendLog) {
+        if (JobLogAsyncWriter.getInstance().append(logFileName, appendLog)) {
+            return;
         }
+        appendLogSync(logFileName, appendLog);
+    }
+
+    private static String truncateNotice(JobLogBudget budget) {
+        return "----------- xxl-job log exceeds limit " + budget.getLimitBytes()
+                + " bytes, the rest is kept as a rolling tail until the job ends -----------";
+    }
+
+    /**
+     * 同步追加日志到指定文件
+     * 如果文件不存在则创建文件，如果父目录不存在则创建父目录
+     *
+     * @param logFileName 日志文件名（完整路径）
+     * @param appendLog   要追加的日志内容
+     */
+    static void appendLogSync(String logFileName, String appendLog) {
         appendLog += "\r\n";
 
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
-                new FileOutputStream(logFile, true), StandardCharsets.UTF_8))) {
-            writer.write(appendLog);
+        try (OutputStream out = openStoreAppender(logFileName)) {
+            out.write(appendLog.getBytes(StandardCharsets.UTF_8));
         } catch (Exception e) {
             log.error("写入日志文件异常: {}", logFileName, e);
         }
     }
 
+    /**
+     * 将异步写入中的日志落盘
+     * 读取、外部进程追加日志文件前调用，保证文件内容完整
+     *
+     * @param logFileName 日志文件名（完整路径）
+     */
+    public static void flush(String logFileName) {
+        if (StringUtils.isBlank(logFileName)) {
+            return;
+        }
+        JobLogAsyncWriter.getInstance().flush(logFileName, false);
+    }
+
+    /**
+     * 任务执行结束，写入日志预算保留的尾部，将日志落盘并释放文件句柄，通知日志监听器日志已结束
+     *
+     * @param logFileName 日志文件名（完整路径）
+     */
+    public static void endLog(String logFileName) {
+        if (StringUtils.isBlank(logFileName)) {
+            return;
+        }
+        ACTIVE_LOGS.remove(logFileName);
+        JobLogBudget budget = LOG_BUDGETS.remove(logFileName);
+        if (budget != null) {
+            String tail = budget.finish();
+            if (tail != null) {
+                writeLog(logFileName, tail);
+            }
+        }
+        JobLogAsyncWriter.getInstance().flush(logFileName, true);
+        notifyEnd(logFileName);
+    }
+
+    /**
+     * 压缩日期目录下的日志文件（含分段存储的分段文件），压缩后的日志仍可通过 readLog 读取
+     * 先写入临时文件再重命名，最后删除原文件及其行号索引；最近仍有写入的文件跳过
+     *
+     * @param logDir        日期目录
+     * @param minIdleMillis 最后修改时间距今至少多久的文件才压缩
+     * @return 压缩的文件数
+     */
+    public static int compressLogDir(File logDir, long minIdleMillis) {
+        File[] logFiles = logDir.listFiles(file -> file.isFile()
+                && (file.getName().endsWith(LOG_SUFFIX) || file.getName().endsWith(SegmentJobLogStore.DATA_SUFFIX)));
+        if (logFiles == null) {
+            return 0;
+        }
+        long idleBefore = System.currentTimeMillis() - minIdleMillis;
+        int compressed = 0;
+        for (File logFile : logFiles) {
+            if (logFile.lastModified() > idleBefore) {
+                continue;
+            }
+            File compressedFile = new File(logFile.getPath() + BlockGzip.SUFFIX);
+            File tempFile = new File(compressedFile.getPath() + ".tmp");
+            try {
+                BlockGzip.compress(logFile, tempFile);
+                Files.move(tempFile.toPath(), compressedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.delete(logFile.toPath());
+                Files.deleteIfExists(Paths.get(logFile.getPath() + FileJobLogStore.INDEX_SUFFIX));
+                compressed++;
+            } catch (IOException e) {
+                log.warn(">>>>>>>>>>> xxl-job, compress log file fail: {}", logFile.getPath(), e);
+                tempFile.delete();
+            }
+        }
+        return compressed;
+    }
+
     /**
      * 读取日志文件内容
      *
@@ -150,39 +461,238 @@ public class JobLogFileAppender {
 
     /**
      * 从指定行号开始读取日志文件内容
+     * 通过行号索引定位到起始行附近，单次最多返回 {@link #READ_MAX_BYTES} 字节（至少一行），剩余内容由下次请求继续读取
      *
      * @param logFileName 日志文件名
      * @param fromLineNum 起始行号（从1开始）
-     * @return 日志结果对象，包含读取的行号范围和日志内容
+     * @return 日志结果对象，包含读取的行号范围和日志内容，读到文件末尾时isEnd为true
      */
     public static LogResult readLog(String logFileName, int fromLineNum) {
         if (StringUtils.isBlank(logFileName)) {
             return new LogResult(fromLineNum, 0, "readLog fail, logFile not found", true);
         }
-        File logFile = new File(logFileName);
+        flush(logFileName);
 
-        if (!logFile.exists()) {
-            return new LogResult(fromLineNum, 0, "readLog fail, logFile not exists", true);
+        synchronized (READ_LOCKS[(logFileName.hashCode() & Integer.MAX_VALUE) % READ_LOCKS.length]) {
+            try (JobLogSource source = logStore.openSource(logFileName)) {
+                if (source == null) {
+                    return new LogResult(fromLineNum, 0, "readLog fail, logFile not exists", true);
+                }
+                JobLogLineIndex lineIndex = source.lineIndex();
+                try {
+                    return readLines(source, lineIndex, Math.max(fromLineNum, 1));
+                } finally {
+                    lineIndex.save();
+                }
+            } catch (IOException e) {
+                log.error("读取日志文件异常: {}", logFileName, e);
+                return new LogResult(fromLineNum, 0, "readLog fail, IOException", true);
+            }
         }
+    }
 
-        StringBuilder logContentBuffer = new StringBuilder();
-        int toLineNum = 0;
+    /**
+     * 从指定字节偏移开始分页读取日志文件内容
+     * 直接按位置读取文件区间，单页在最后一个完整行处截断（单行超过单页大小时按UTF-8字符边界截断），
+     * 下一页从返回的 toOffset 开始
+     *
+     * @param logFileName 日志文件名
+     * @param fromOffset  起始字节偏移
+     * @param maxBytes    单页最大字节数，小于等于0时使用默认值，不超过 {@link #READ_CHUNK_MAX_BYTES}
+     * @return 日志结果对象，包含读取的字节偏移范围和日志内容，读到文件末尾时isEnd为true
+     */
+    public static LogResult readLogChunk(String logFileName, long fromOffset, int maxBytes) {
+        return readLogChunk(logFileName, fromOffset, maxBytes, false);
+    }
+
+    /**
+     * 从指定字节偏移开始分页读取日志文件内容
+     *
+     * @param logFileName   日志文件名
+     * @param fromOffset    起始字节偏移
+     * @param maxBytes      单页最大字节数，小于等于0时使用默认值，不超过 {@link #READ_CHUNK_MAX_BYTES}
+     * @param completeLines 是否只返回完整的行，为true时文件末尾未写完的行留待下次读取（单行超过单页大小时仍按字符边界截断）
+     * @return 日志结果对象，包含读取的字节偏移范围和日志内容，读到文件末尾时isEnd为true
+     */
+    public static LogResult readLogChunk(String logFileName, long fromOffset, int maxBytes, boolean completeLines) {
+        if (StringUtils.isBlank(logFileName)) {
+            return new LogResult(fromOffset, fromOffset, "readLog fail, logFile not found", true);
+        }
+        flush(logFileName);
 
-        try (LineIterator iterator = FileUtils.lineIterator(logFile, StandardCharsets.UTF_8.name())) {
-            int lineNumber = 1;
-            while (iterator.hasNext()) {
-                String line = iterator.nextLine();
-                if (lineNumber >= fromLineNum) {
-                    logContentBuffer.append(line).append("\n");
-                    toLineNum = lineNumber;
+        int chunkBytes = maxBytes > 0 ? Math.min(maxBytes, READ_CHUNK_MAX_BYTES) : READ_MAX_BYTES;
+        long from = Math.max(fromOffset, 0);
+        try (JobLogSource source = logStore.openSource(logFileName)) {
+            if (source == null) {
+                return new LogResult(fromOffset, fromOffset, "readLog fail, logFile not exists", true);
+            }
+            long length = source.size();
+            if (from >= length) {
+                return new LogResult(from, from, "", true);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkBytes, length - from));
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer, from + buffer.position()) <= 0) {
+                    break;
                 }
-                lineNumber++;
             }
+            byte[] bytes = buffer.array();
+            int read = buffer.position();
+            int end = read;
+            boolean eof = from + read >= length;
+            if (!eof || completeLines) {
+                // cut at the last complete line
+                while (end > 0 && bytes[end - 1] != '\n') {
+                    end--;
+                }
+            }
+            if (end == 0 && !eof) {
+                // single line longer than a chunk
+                end = utf8Boundary(bytes, read);
+            } else if (eof && !completeLines) {
+                // the tail being written
+                end = utf8Boundary(bytes, end);
+            }
+            String content = new String(bytes, 0, end, StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return new LogResult(from, from + end, content, from + end >= length);
         } catch (IOException e) {
-            log.error("读取日志文件异常: {}", logFile.getAbsolutePath(), e);
-            return new LogResult(fromLineNum, 0, "readLog fail, IOException", true);
+            log.error("读取日志文件异常: {}", logFileName, e);
+            return new LogResult(fromOffset, fromOffset, "readLog fail, IOException", true);
+        }
+    }
+
+    /**
+     * 检索日志
+     * 在日期范围内的日志中并行逐行检索，返回行数及耗时有上限，超出时返回已检索到的结果（已压缩的日志同样可检索）
+     *
+     * @param param 检索参数，检索内容不能为空
+     * @return 检索结果
+     * @throws java.util.regex.PatternSyntaxException 正则表达式不合法
+     */
+    public static LogSearchResult searchLog(LogSearchParam param) {
+        if (param == null || StringUtils.isEmpty(param.getPattern())) {
+            throw new IllegalArgumentException("log search pattern is empty");
+        }
+        return JobLogSearcher.search(logStore, logBasePath, param);
+    }
+
+    /**
+     * 调整截断位置，避免截断UTF-8多字节字符
+     */
+    private static int utf8Boundary(byte[] bytes, int end) {
+        int start = end - 1;
+        while (start > 0 && end - start < 4 && (bytes[start] & 0xC0) == 0x80) {
+            start--;
+        }
+        if (start < 0) {
+            return end;
+        }
+        int lead = bytes[start] & 0xFF;
+        int charBytes = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+        return end - start < charBytes && start > 0 ? start : end;
+    }
+
+    /**
+     * 由最近的索引点开始按行扫描，跳过起始行之前的内容并收集之后的行
+     */
+    private static LogResult readLines(JobLogSource source, JobLogLineIndex lineIndex, int fromLineNum) throws IOException {
+        int point = lineIndex.floor(fromLineNum);
+        int lineNum = lineIndex.lineAt(point);
+        long position = lineIndex.offsetAt(point);
+        long length = source.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        LogContentBuffer content = new LogContentBuffer();
+        int toLineNum = 0;
+        long lineStart = position;
+        boolean truncated = false;
+
+        while (position < length && !truncated) {
+            buffer.clear();
+            int read = source.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            int segmentStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (lineNum >= fromLineNum) {
+                    content.write(bytes, segmentStart, i - segmentStart);
+                    // "\r\n" -> "\n"
+                    content.trimCarriageReturn();
+                    content.write('\n');
+                    toLineNum = lineNum;
+                }
+                lineNum++;
+                lineStart = position + i + 1;
+                segmentStart = i + 1;
+                lineIndex.onLineStart(lineNum, lineStart);
+                if (content.size() >= READ_MAX_BYTES) {
+                    truncated = true;
+                    break;
+                }
+            }
+            if (!truncated && lineNum >= fromLineNum && segmentStart < read) {
+                content.write(bytes, segmentStart, read - segmentStart);
+            }
+            position += read;
         }
 
-        return new LogResult(fromLineNum, toLineNum, logContentBuffer.toString(), true);
+        if (!truncated && lineNum >= fromLineNum && lineStart < length) {
+            // last line without line separator
+            content.write('\n');
+            toLineNum = lineNum;
+        }
+        return new LogResult(fromLineNum, toLineNum, new String(content.toByteArray(), StandardCharsets.UTF_8), !truncated);
+    }
+
+    /**
+     * 追加日志的输出流：已登记日志预算时计入预算（超出预算的内容进入预算的尾部缓冲区），写入后通知日志监听器
+     */
+    private static final class AppenderOutputStream extends FilterOutputStream {
+        private final String logFileName;
+        private final JobLogBudget budget;
+
+        private AppenderOutputStream(OutputStream out, String logFileName, JobLogBudget budget) {
+            super(out);
+            this.logFileName = logFileName;
+            this.budget = budget;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (budget == null) {
+                out.write(b, off, len);
+            } else {
+                int head = budget.admitBytes(b, off, len);
+                if (head > 0) {
+                    out.write(b, off, head);
+                }
+                if (budget.takeNotice()) {
+                    TRUNCATED_LOGS.increment();
+                    out.write((truncateNotice(budget) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            notifyAppend(logFileName);
+        }
+    }
+
+    /**
+     * 日志内容缓冲区，支持去掉行尾的回车符（可能在上一次读取时已写入）
+     */
+    private static final class LogContentBuffer extends ByteArrayOutputStream {
+        void trimCarriageReturn() {
+            if (count > 0 && buf[count - 1] == '\r') {
+                count--;
+            }
+        }
     }
 }
@@ -0,0 +1,144 @@
+package com.ccexid.core.log;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 任务日志行号索引
+ * 以旁路文件（单文件存储为 "日志文件名.idx"）保存每 {@link #LINE_INTERVAL} 行的起始字节偏移，读取日志时由最近的索引点开始扫描；
+ * 索引在读取时增量扩展（脚本任务的输出由子进程直接追加到日志文件，无法在写入时统计行号）
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class JobLogLineIndex {
+
+    /**
+     * 索引间隔行数
+     */
+    static final int LINE_INTERVAL = 1024;
+
+    private final File indexFile;
+    /**
+     * offsets[k] 为第 k * LINE_INTERVAL + 1 行的起始字节偏移
+     */
+    private long[] offsets;
+    private int size;
+    private int savedSize;
+
+    private JobLogLineIndex(File indexFile, long[] offsets, int size, int savedSize) {
+        this.indexFile = indexFile;
+        this.offsets = offsets;
+        this.size = size;
+        this.savedSize = savedSize;
+    }
+
+    /**
+     * 加载行号索引，索引文件不存在或与日志内容不一致时从头开始
+     *
+     * @param indexFile 索引文件，为null时索引仅在本次读取中使用
+     * @param logLength 日志内容字节数
+     * @return 行号索引
+     */
+    static JobLogLineIndex load(File indexFile, long logLength) {
+        if (indexFile != null && indexFile.exists()) {
+            int count = (int) (indexFile.length() / Long.BYTES);
+            long[] offsets = new long[Math.max(count, 16)];
+            int size = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                for (int i = 0; i < count; i++) {
+                    long offset = in.readLong();
+                    // log file truncated or recreated
+                    if (offset > logLength || (size > 0 && offset <= offsets[size - 1])) {
+                        break;
+                    }
+                    offsets[size++] = offset;
+                }
+            } catch (IOException e) {
+                log.warn(">>>>>>>>>>> xxl-job, load log line index fail: {}", indexFile.getPath(), e);
+            }
+            if (size > 0 && size == count && offsets[0] == 0) {
+                return new JobLogLineIndex(indexFile, offsets, size, size);
+            }
+            if (!indexFile.delete()) {
+                log.warn(">>>>>>>>>>> xxl-job, delete stale log line index fail: {}", indexFile.getPath());
+            }
+        }
+        long[] offsets = new long[16];
+        // line 1 starts at offset 0
+        return new JobLogLineIndex(indexFile, offsets, 1, 0);
+    }
+
+    /**
+     * 获取不晚于指定行的索引点
+     *
+     * @param lineNum 行号（从1开始）
+     * @return 索引点下标
+     */
+    int floor(int lineNum) {
+        return Math.min((Math.max(lineNum, 1) - 1) / LINE_INTERVAL, size - 1);
+    }
+
+    /**
+     * 索引点对应的行号
+     *
+     * @param point 索引点下标
+     * @return 行号
+     */
+    int lineAt(int point) {
+        return point * LINE_INTERVAL + 1;
+    }
+
+    /**
+     * 索引点对应的字节偏移
+     *
+     * @param point 索引点下标
+     * @return 字节偏移
+     */
+    long offsetAt(int point) {
+        return offsets[point];
+    }
+
+    /**
+     * 扫描到新的一行的起始位置
+     *
+     * @param lineNum 行号
+     * @param offset  该行起始字节偏移
+     */
+    void onLineStart(int lineNum, long offset) {
+        if ((lineNum - 1) % LINE_INTERVAL != 0 || (lineNum - 1) / LINE_INTERVAL != size) {
+            return;
+        }
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size << 1);
+        }
+        offsets[size++] = offset;
+    }
+
+    /**
+     * 将新增的索引点追加到索引文件
+     */
+    void save() {
+        if (indexFile == null || size == savedSize) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)))) {
+            for (int i = savedSize; i < size; i++) {
+                out.writeLong(offsets[i]);
+            }
+            savedSize = size;
+        } catch (IOException e) {
+            log.warn(">>>>>>>>>>> xxl-job, save log line index fail: {}", indexFile.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ccexid.core.log;
+
+/**
+ * 任务日志变更监听器
+ * 通知只表示日志有变化，监听方按自己的读取位置读取新增内容；回调在写日志的线程中执行，不应阻塞
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public interface JobLogListener {
+
+    /**
+     * 日志有新的内容写入
+     */
+    void onAppend();
+
+    /**
+     * 任务执行结束，日志不再写入
+     */
+    void onEnd();
+}
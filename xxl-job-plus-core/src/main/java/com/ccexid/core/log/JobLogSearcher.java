@@ -0,0 +1,454 @@
+package com.ccexid.core.log;
+
+import com.ccexid.core.model.LogSearchHit;
+import com.ccexid.core.model.LogSearchParam;
+import com.ccexid.core.model.LogSearchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.time.DateUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 任务日志检索
+ * 按日期范围列出日志（新的在前），由共享的检索线程并行逐行扫描，达到返回行数上限或耗时上限时提前结束并返回已有结果；
+ * 字面内容且区分大小写时直接在字节上匹配，无需解码每一行；正则匹配过程中同样检查耗时上限，回溯严重的表达式不会长时间占用检索线程
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class JobLogSearcher {
+
+    private static final int MAX_RESULTS_DEFAULT = 100;
+    private static final int MAX_RESULTS_LIMIT = 1000;
+    private static final long TIMEOUT_MILLIS_DEFAULT = 2000;
+    private static final long TIMEOUT_MILLIS_LIMIT = 30000;
+    /**
+     * 最多检索的天数
+     */
+    private static final int MAX_DAYS = 31;
+    /**
+     * 单个日志最多返回的匹配行数，避免一个日志占满结果
+     */
+    private static final int MAX_HITS_PER_LOG = 20;
+    private static final int SNIPPET_MAX_CHARS = 256;
+    /**
+     * 单行参与匹配的最大字节数，超出部分忽略
+     */
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    /**
+     * 正则匹配每读取多少个字符检查一次耗时上限
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+    private static final String DATE_FORMAT_PATTERN = "yyyy-MM-dd";
+
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final ThreadPoolExecutor SEARCH_POOL;
+
+    static {
+        AtomicInteger threadNumber = new AtomicInteger();
+        SEARCH_POOL = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1024),
+                r -> {
+                    Thread thread = new Thread(r, "xxl-job, JobLogSearcher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        SEARCH_POOL.allowCoreThreadTimeOut(true);
+    }
+
+    private JobLogSearcher() {
+    }
+
+    /**
+     * 检索日志
+     *
+     * @param store    日志存储
+     * @param logPath  日志基础路径
+     * @param param    检索参数，检索内容不能为空
+     * @return 检索结果
+     * @throws java.util.regex.PatternSyntaxException 正则表达式不合法
+     */
+    static LogSearchResult search(JobLogStore store, String logPath, LogSearchParam param) {
+        long begin = System.currentTimeMillis();
+        int maxResults = param.getMaxResults() > 0 ? Math.min(param.getMaxResults(), MAX_RESULTS_LIMIT) : MAX_RESULTS_DEFAULT;
+        long timeoutMillis = param.getTimeoutMillis() > 0 ? Math.min(param.getTimeoutMillis(), TIMEOUT_MILLIS_LIMIT) : TIMEOUT_MILLIS_DEFAULT;
+        long deadline = begin + timeoutMillis;
+        LineMatcher matcher = LineMatcher.of(param.getPattern(), param.isRegex(), param.isIgnoreCase(), deadline);
+
+        // logs to scan, newest first
+        List<DayLog> logs = new ArrayList<>();
+        for (Date day : days(param.getFromDateTim(), param.getToDateTim())) {
+            File dayDir = new File(logPath, DateFormatUtils.format(day, DATE_FORMAT_PATTERN));
+            if (!dayDir.isDirectory()) {
+                continue;
+            }
+            for (JobLogStore.LogRef ref : store.listLogs(dayDir)) {
+                logs.add(new DayLog(day.getTime(), ref));
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+        }
+
+        Search search = new Search(logs, matcher, maxResults, deadline);
+        search.run();
+
+        List<LogSearchHit> hits = new ArrayList<>(search.hits);
+        hits.sort(Comparator.comparingLong(LogSearchHit::getLogDateTim).reversed()
+                .thenComparing(Comparator.comparingLong(LogSearchHit::getLogId).reversed())
+                .thenComparingInt(LogSearchHit::getLineNum));
+        if (hits.size() > maxResults) {
+            hits = new ArrayList<>(hits.subList(0, maxResults));
+        }
+
+        LogSearchResult result = new LogSearchResult();
+        result.setHits(hits);
+        result.setTotalLogs(logs.size());
+        result.setScannedLogs(search.scannedLogs.get());
+        result.setScannedBytes(search.scannedBytes.get());
+        result.setTruncated(search.truncated.get());
+        result.setTimedOut(search.timedOut.get());
+        result.setElapsedMillis(System.currentTimeMillis() - begin);
+        return result;
+    }
+
+    /**
+     * 检索的日期（零点），由新到旧
+     */
+    private static List<Date> days(long fromDateTim, long toDateTim) {
+        long to = toDateTim > 0 ? toDateTim : System.currentTimeMillis();
+        long from = fromDateTim > 0 ? fromDateTim : to;
+        if (from > to) {
+            long swap = from;
+            from = to;
+            to = swap;
+        }
+        Date fromDay = DateUtils.truncate(new Date(from), Calendar.DATE);
+        List<Date> days = new ArrayList<>();
+        for (Date day = DateUtils.truncate(new Date(to), Calendar.DATE);
+             !day.before(fromDay) && days.size() < MAX_DAYS; day = DateUtils.addDays(day, -1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static final class DayLog {
+        private final long logDateTim;
+        private final JobLogStore.LogRef ref;
+
+        private DayLog(long logDateTim, JobLogStore.LogRef ref) {
+            this.logDateTim = logDateTim;
+            this.ref = ref;
+        }
+    }
+
+    /**
+     * 一次检索，检索线程依次领取下一个日志扫描
+     */
+    private static final class Search {
+        private final List<DayLog> logs;
+        private final LineMatcher matcher;
+        private final int maxResults;
+        private final long deadline;
+
+        private final AtomicInteger nextLog = new AtomicInteger();
+        private final AtomicInteger hitCount = new AtomicInteger();
+        private final AtomicInteger scannedLogs = new AtomicInteger();
+        private final AtomicLong scannedBytes = new AtomicLong();
+        private final AtomicBoolean truncated = new AtomicBoolean();
+        private final AtomicBoolean timedOut = new AtomicBoolean();
+        private final ConcurrentLinkedQueue<LogSearchHit> hits = new ConcurrentLinkedQueue<>();
+
+        private Search(List<DayLog> logs, LineMatcher matcher, int maxResults, long deadline) {
+            this.logs = logs;
+            this.matcher = matcher;
+            this.maxResults = maxResults;
+            this.deadline = deadline;
+        }
+
+        void run() {
+            int workers = Math.min(PARALLELISM, logs.size());
+            CountDownLatch done = new CountDownLatch(workers);
+            for (int i = 0; i < workers; i++) {
+                try {
+                    SEARCH_POOL.execute(() -> {
+                        try {
+                            work();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    done.countDown();
+                }
+            }
+            try {
+                long waitMillis = deadline - System.currentTimeMillis();
+                if (!done.await(Math.max(waitMillis, 0), TimeUnit.MILLISECONDS)) {
+                    timedOut.set(true);
+                }
+            } catch (InterruptedException e) {
+                timedOut.set(true);
+                Thread.currentThread().interrupt();
+            }
+            if (nextLog.get() < logs.size() && !truncated.get()) {
+                // workers rejected or stopped early
+                timedOut.set(true);
+            }
+        }
+
+        private boolean stopped() {
+            if (truncated.get() || timedOut.get()) {
+                return true;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                timedOut.set(true);
+                return true;
+            }
+            return false;
+        }
+
+        private void work() {
+            int index;
+            while (!stopped() && (index = nextLog.getAndIncrement()) < logs.size()) {
+                DayLog dayLog = logs.get(index);
+                try (JobLogSource source = dayLog.ref.open()) {
+                    if (source != null) {
+                        scan(dayLog, source);
+                    }
+                } catch (IOException e) {
+                    log.warn(">>>>>>>>>>> xxl-job, search log fail, logId:{}", dayLog.ref.logId(), e);
+                }
+                scannedLogs.incrementAndGet();
+            }
+        }
+
+        private void scan(DayLog dayLog, JobLogSource source) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            byte[] carry = new byte[0];
+            int carryLength = 0;
+            int lineNum = 1;
+            int logHits = 0;
+            long position = 0;
+            long length = source.size();
+
+            while (position < length && logHits < MAX_HITS_PER_LOG && !stopped()) {
+                buffer.clear();
+                int read = source.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                scannedBytes.addAndGet(read);
+                byte[] bytes = buffer.array();
+                int lineStart = 0;
+                for (int i = 0; i < read && logHits < MAX_HITS_PER_LOG && !timedOut.get(); i++) {
+                    if (bytes[i] != '\n') {
+                        continue;
+                    }
+                    if (carryLength > 0) {
+                        carry = appendCarry(carry, carryLength, bytes, lineStart, i);
+                        carryLength = Math.min(carryLength + i - lineStart, MAX_LINE_BYTES);
+                        logHits += match(dayLog, lineNum, carry, 0, carryLength);
+                        carryLength = 0;
+                    } else {
+                        logHits += match(dayLog, lineNum, bytes, lineStart, Math.min(i, lineStart + MAX_LINE_BYTES));
+                    }
+                    lineNum++;
+                    lineStart = i + 1;
+                }
+                if (lineStart < read && carryLength < MAX_LINE_BYTES) {
+                    // partial line continues in the next read
+                    carry = appendCarry(carry, carryLength, bytes, lineStart, read);
+                    carryLength = Math.min(carryLength + read - lineStart, MAX_LINE_BYTES);
+                }
+            }
+            if (carryLength > 0 && logHits < MAX_HITS_PER_LOG && position >= length) {
+                // last line without line separator
+                match(dayLog, lineNum, carry, 0, carryLength);
+            }
+        }
+
+        private static byte[] appendCarry(byte[] carry, int carryLength, byte[] bytes, int from, int to) {
+            int count = Math.min(to - from, MAX_LINE_BYTES - carryLength);
+            if (count <= 0) {
+                return carry;
+            }
+            if (carry.length < carryLength + count) {
+                byte[] grown = new byte[Math.min(Math.max(carry.length * 2, carryLength + count), MAX_LINE_BYTES)];
+                System.arraycopy(carry, 0, grown, 0, carryLength);
+                carry = grown;
+            }
+            System.arraycopy(bytes, from, carry, carryLength, count);
+            return carry;
+        }
+
+        /**
+         * @return 匹配时为1
+         */
+        private int match(DayLog dayLog, int lineNum, byte[] bytes, int from, int to) {
+            if (to > from && bytes[to - 1] == '\r') {
+                to--;
+            }
+            String snippet;
+            try {
+                snippet = matcher.match(bytes, from, to);
+            } catch (MatchTimeoutException e) {
+                timedOut.set(true);
+                return 0;
+            }
+            if (snippet == null) {
+                return 0;
+            }
+            if (hitCount.incrementAndGet() > maxResults) {
+                truncated.set(true);
+                return 0;
+            }
+            hits.add(new LogSearchHit(dayLog.logDateTim, dayLog.ref.logId(), lineNum, snippet));
+            return 1;
+        }
+    }
+
+    /**
+     * 行匹配器，匹配时返回行内容片段
+     */
+    private abstract static class LineMatcher {
+
+        static LineMatcher of(String pattern, boolean regex, boolean ignoreCase, long deadline) {
+            if (!regex && !ignoreCase) {
+                return new BytesMatcher(pattern.getBytes(StandardCharsets.UTF_8));
+            }
+            int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+            return new RegexMatcher(Pattern.compile(regex ? pattern : Pattern.quote(pattern), flags), deadline);
+        }
+
+        /**
+         * @throws MatchTimeoutException 匹配过程中超过耗时上限
+         */
+        abstract String match(byte[] bytes, int from, int to);
+
+        static String snippet(String line, int matchStart) {
+            if (line.length() <= SNIPPET_MAX_CHARS) {
+                return line;
+            }
+            int start = Math.max(0, Math.min(matchStart - SNIPPET_MAX_CHARS / 4, line.length() - SNIPPET_MAX_CHARS));
+            return line.substring(start, start + SNIPPET_MAX_CHARS);
+        }
+    }
+
+    private static final class BytesMatcher extends LineMatcher {
+        private final byte[] pattern;
+
+        private BytesMatcher(byte[] pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        String match(byte[] bytes, int from, int to) {
+            byte first = pattern[0];
+            int last = to - pattern.length;
+            outer:
+            for (int i = from; i <= last; i++) {
+                if (bytes[i] != first) {
+                    continue;
+                }
+                for (int j = 1; j < pattern.length; j++) {
+                    if (bytes[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                String prefix = new String(bytes, from, i - from, StandardCharsets.UTF_8);
+                return snippet(prefix + new String(bytes, i, to - i, StandardCharsets.UTF_8), prefix.length());
+            }
+            return null;
+        }
+    }
+
+    private static final class RegexMatcher extends LineMatcher {
+        private final Pattern pattern;
+        private final long deadline;
+
+        private RegexMatcher(Pattern pattern, long deadline) {
+            this.pattern = pattern;
+            this.deadline = deadline;
+        }
+
+        @Override
+        String match(byte[] bytes, int from, int to) {
+            String line = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            // the caller-supplied pattern may backtrack for a long time on one line, check the deadline while it reads
+            Matcher matcher = pattern.matcher(new DeadlineCharSequence(line, deadline));
+            return matcher.find() ? snippet(line, matcher.start()) : null;
+        }
+    }
+
+    /**
+     * 读取字符时检查耗时上限的行内容，超时抛出 {@link MatchTimeoutException} 中止匹配
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final String line;
+        private final long deadline;
+        private int reads;
+
+        private DeadlineCharSequence(String line, long deadline) {
+            this.line = line;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads % DEADLINE_CHECK_INTERVAL == 0 && System.currentTimeMillis() >= deadline) {
+                throw MatchTimeoutException.INSTANCE;
+            }
+            return line.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return line.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return line.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return line;
+        }
+    }
+
+    /**
+     * 正则匹配超过耗时上限，仅用于中止匹配，不含堆栈
+     */
+    private static final class MatchTimeoutException extends RuntimeException {
+        private static final MatchTimeoutException INSTANCE = new MatchTimeoutException();
+
+        private MatchTimeoutException() {
+            super("log search regex match timeout", null, false, false);
+        }
+    }
+}
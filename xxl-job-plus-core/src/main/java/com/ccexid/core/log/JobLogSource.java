@@ -0,0 +1,50 @@
+package com.ccexid.core.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 一次触发的日志内容，支持按位置读取
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+interface JobLogSource extends Closeable {
+
+    /**
+     * 日志内容字节数
+     *
+     * @return 字节数
+     * @throws IOException 读取失败
+     */
+    long size() throws IOException;
+
+    /**
+     * 从指定位置读取日志内容
+     *
+     * @param dst      目标缓冲区
+     * @param position 起始位置
+     * @return 读取的字节数，位置超出末尾时返回-1
+     * @throws IOException 读取失败
+     */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * 行号索引文件
+     *
+     * @return 行号索引文件，为null时不持久化行号索引
+     */
+    File indexFile();
+
+    /**
+     * 行号索引，默认从 {@link #indexFile()} 加载
+     *
+     * @return 行号索引
+     * @throws IOException 读取失败
+     */
+    default JobLogLineIndex lineIndex() throws IOException {
+        return JobLogLineIndex.load(indexFile(), size());
+    }
+}
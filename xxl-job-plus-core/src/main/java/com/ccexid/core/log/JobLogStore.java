@@ -0,0 +1,67 @@
+package com.ccexid.core.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 任务日志存储
+ * 以日志文件名（日志路径/yyyy-MM-dd/日志ID.log）标识一次触发的日志，由具体实现决定其在磁盘上的组织方式
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+interface JobLogStore {
+
+    /**
+     * 打开追加日志的输出流
+     * 每次 write 调用的内容作为整体追加，可被多个线程同时写入，close 后释放
+     *
+     * @param logFileName 日志文件名
+     * @return 输出流
+     * @throws IOException 打开失败
+     */
+    OutputStream openAppender(String logFileName) throws IOException;
+
+    /**
+     * 打开读取日志的数据源
+     *
+     * @param logFileName 日志文件名
+     * @return 数据源，日志不存在时返回null
+     * @throws IOException 打开失败
+     */
+    JobLogSource openSource(String logFileName) throws IOException;
+
+    /**
+     * 列出日期目录下的全部日志，用于日志检索
+     *
+     * @param dayDir 日期目录
+     * @return 日志列表，按日志ID倒序
+     */
+    List<LogRef> listLogs(File dayDir);
+
+    /**
+     * 关闭存储持有的文件句柄
+     */
+    void close();
+
+    /**
+     * 日期目录下的一个日志
+     */
+    interface LogRef {
+
+        /**
+         * @return 日志ID
+         */
+        long logId();
+
+        /**
+         * 打开读取日志的数据源
+         *
+         * @return 数据源，日志已不存在时返回null
+         * @throws IOException 打开失败
+         */
+        JobLogSource open() throws IOException;
+    }
+}
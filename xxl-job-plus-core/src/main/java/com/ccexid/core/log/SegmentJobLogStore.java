@@ -0,0 +1,679 @@
+package com.ccexid.core.log;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分段日志存储
+ * 同一天所有触发的日志追加到日期目录下滚动的分段文件 segment-N.data 中，每次追加在 segment-N.ext 中记录一个区间
+ * （日志ID、段内偏移、长度，共20字节），同一日志ID的连续追加合并为一个区间。
+ * 正在写入的分段在内存中按日志ID维护区间表；不再写入的分段在首次读取时生成按日志ID排序的 segment-N.idx，读取时二分查找，
+ * 单次读取的开销与当天的日志量无关。清理、保留、压缩均以日期目录下的整个分段为单位
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class SegmentJobLogStore implements JobLogStore {
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SEGMENT_PREFIX = "segment-";
+    static final String DATA_SUFFIX = ".data";
+    private static final String EXTENT_SUFFIX = ".ext";
+    private static final String INDEX_SUFFIX = ".idx";
+    /**
+     * 区间记录：logId(8) + offset(8) + length(4)
+     */
+    private static final int EXTENT_BYTES = 20;
+    private static final int SCAN_BUFFER_SIZE = EXTENT_BYTES * 4096;
+    /**
+     * 最多保持打开的日期目录数（跨天运行的任务仍写入触发当天的目录）
+     */
+    private static final int MAX_OPEN_DAYS = 4;
+    /**
+     * 每个日期目录缓存的行号索引数
+     */
+    private static final int MAX_CACHED_LINE_INDEXES = 256;
+
+    private final long segmentMaxBytes;
+
+    private final LinkedHashMap<String, DaySegments> days = new LinkedHashMap<String, DaySegments>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DaySegments> eldest) {
+            if (size() > MAX_OPEN_DAYS) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    SegmentJobLogStore(long segmentMaxBytes) {
+        this.segmentMaxBytes = segmentMaxBytes;
+    }
+
+    @Override
+    public OutputStream openAppender(String logFileName) throws IOException {
+        File logFile = new File(logFileName);
+        return new ExtentOutputStream(logFile.getParentFile(), parseLogId(logFile));
+    }
+
+    @Override
+    public JobLogSource openSource(String logFileName) throws IOException {
+        File logFile = new File(logFileName);
+        long logId = parseLogId(logFile);
+        File dayDir = logFile.getParentFile();
+        if (dayDir == null || !dayDir.isDirectory()) {
+            return null;
+        }
+        DaySegments day = day(dayDir);
+        List<Extent> extents = day.findExtents(logId);
+        return extents.isEmpty() ? null : new SegmentSource(extents, day.lineIndex(logId));
+    }
+
+    @Override
+    public List<LogRef> listLogs(File dayDir) {
+        // read the extent files directly, the open day cache is left to the writers
+        File[] extentFiles = dayDir.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(EXTENT_SUFFIX));
+        TreeMap<Long, List<Extent>> logExtents = new TreeMap<>();
+        if (extentFiles != null) {
+            Arrays.sort(extentFiles);
+            for (File extentFile : extentFiles) {
+                String name = extentFile.getName();
+                int number;
+                try {
+                    number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - EXTENT_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Segment segment = new Segment(dayDir, number);
+                segment.forEachExtent((logId, offset, length) -> logExtents
+                        .computeIfAbsent(logId, key -> new ArrayList<>())
+                        .add(new Extent(segment.dataFile, offset, length)));
+            }
+        }
+        List<LogRef> logs = new ArrayList<>(logExtents.size());
+        for (Map.Entry<Long, List<Extent>> entry : logExtents.descendingMap().entrySet()) {
+            long logId = entry.getKey();
+            List<Extent> extents = entry.getValue();
+            logs.add(new LogRef() {
+                @Override
+                public long logId() {
+                    return logId;
+                }
+
+                @Override
+                public JobLogSource open() {
+                    return new SegmentSource(extents, null);
+                }
+            });
+        }
+        return logs;
+    }
+
+    @Override
+    public void close() {
+        synchronized (days) {
+            for (DaySegments day : days.values()) {
+                day.close();
+            }
+            days.clear();
+        }
+    }
+
+    private DaySegments day(File dayDir) {
+        String key = dayDir.getPath();
+        synchronized (days) {
+            DaySegments day = days.get(key);
+            if (day == null) {
+                day = new DaySegments(dayDir);
+                days.put(key, day);
+            }
+            return day;
+        }
+    }
+
+    private static long parseLogId(File logFile) throws IOException {
+        String name = logFile.getName();
+        if (name.endsWith(LOG_SUFFIX)) {
+            try {
+                return Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new IOException("invalid job log file name: " + logFile.getPath());
+    }
+
+    /**
+     * 追加到分段文件的输出流，每次写入作为一个区间
+     */
+    private final class ExtentOutputStream extends OutputStream {
+        private final File dayDir;
+        private final long logId;
+
+        private ExtentOutputStream(File dayDir, long logId) {
+            this.dayDir = dayDir;
+            this.logId = logId;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len <= 0) {
+                return;
+            }
+            // day segments closed by eviction: retry with a reopened one
+            while (!day(dayDir).append(logId, b, off, len)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * 一个日期目录下的分段文件
+     */
+    private final class DaySegments {
+        private final File dayDir;
+        private final List<Segment> segments = new ArrayList<>();
+
+        private Segment active;
+        /**
+         * 正在写入的分段中各日志ID的区间
+         */
+        private final Map<Long, ExtentList> activeExtents = new HashMap<>();
+        /**
+         * 写入在任务线程中进行，使用不响应中断的 RandomAccessFile：任务被终止时中断写入会关闭 FileChannel，导致当天所有任务的日志都无法写入
+         */
+        private RandomAccessFile activeData;
+        private RandomAccessFile activeExtent;
+        private long activeDataSize;
+        private long activeExtentSize;
+
+        /**
+         * 最后一个区间，用于合并同一日志ID的连续追加
+         */
+        private long lastLogId;
+        private long lastOffset;
+        private int lastLength;
+        private long lastExtentPosition = -1;
+
+        private boolean closed;
+
+        /**
+         * 行号索引缓存，分段中的日志只追加，已建立的索引点一直有效
+         */
+        private final LinkedHashMap<Long, JobLogLineIndex> lineIndexes = new LinkedHashMap<Long, JobLogLineIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, JobLogLineIndex> eldest) {
+                return size() > MAX_CACHED_LINE_INDEXES;
+            }
+        };
+
+        private DaySegments(File dayDir) {
+            this.dayDir = dayDir;
+            File[] extentFiles = dayDir.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(EXTENT_SUFFIX));
+            if (extentFiles == null) {
+                return;
+            }
+            for (File extentFile : extentFiles) {
+                String name = extentFile.getName();
+                try {
+                    int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - EXTENT_SUFFIX.length()));
+                    segments.add(new Segment(dayDir, number));
+                } catch (NumberFormatException e) {
+                    log.warn(">>>>>>>>>>> xxl-job, skip invalid log segment: {}", extentFile.getPath());
+                }
+            }
+            segments.sort((a, b) -> Integer.compare(a.number, b.number));
+        }
+
+        synchronized boolean append(long logId, byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                return false;
+            }
+            if (activeData == null) {
+                Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                // a compressed segment is never appended again
+                openActive(last != null && last.dataFile.exists() && last.dataFile.length() < segmentMaxBytes ? last : null);
+            } else if (activeDataSize > 0 && activeDataSize + len > segmentMaxBytes) {
+                closeActive();
+                openActive(null);
+            }
+
+            try {
+                long offset = activeDataSize;
+                writeAt(activeData, b, off, len, offset);
+                activeDataSize += len;
+
+                if (lastExtentPosition >= 0 && lastLogId == logId && lastOffset + lastLength == offset
+                        && (long) lastLength + len <= Integer.MAX_VALUE) {
+                    // contiguous with the last extent of the same log
+                    byte[] length = ByteBuffer.allocate(Integer.BYTES).putInt(lastLength + len).array();
+                    writeAt(activeExtent, length, 0, length.length, lastExtentPosition + 16);
+                    lastLength += len;
+                    activeExtents.get(logId).extendLast(len);
+                } else {
+                    byte[] extent = ByteBuffer.allocate(EXTENT_BYTES).putLong(logId).putLong(offset).putInt(len).array();
+                    writeAt(activeExtent, extent, 0, extent.length, activeExtentSize);
+                    lastExtentPosition = activeExtentSize;
+                    activeExtentSize += EXTENT_BYTES;
+                    lastLogId = logId;
+                    lastOffset = offset;
+                    lastLength = len;
+                    activeExtents.computeIfAbsent(logId, key -> new ExtentList()).add(offset, len);
+                }
+            } catch (IOException e) {
+                // reopen the active segment on the next append, sizes are reloaded from the files
+                closeActive();
+                throw e;
+            }
+            return true;
+        }
+
+        private void openActive(Segment segment) throws IOException {
+            if (segment == null) {
+                int number = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1;
+                segment = new Segment(dayDir, number);
+                segments.add(segment);
+            }
+            if (!dayDir.exists() && !dayDir.mkdirs() && !dayDir.exists()) {
+                throw new IOException("创建日志文件目录失败: " + dayDir.getPath());
+            }
+            // the sorted index no longer covers the extents appended from now on
+            segment.dropIndex();
+            activeData = new RandomAccessFile(segment.dataFile, "rw");
+            activeExtent = new RandomAccessFile(segment.extentFile, "rw");
+            activeDataSize = activeData.length();
+            // drop a partially written extent record
+            activeExtentSize = activeExtent.length() / EXTENT_BYTES * EXTENT_BYTES;
+            lastExtentPosition = -1;
+            active = segment;
+            // extents written before a restart or a reopen, read once
+            activeExtents.clear();
+            segment.forEachExtent((logId, offset, length) -> activeExtents
+                    .computeIfAbsent(logId, key -> new ExtentList())
+                    .add(offset, length));
+        }
+
+        private void closeActive() {
+            closeQuietly(activeData);
+            closeQuietly(activeExtent);
+            activeData = null;
+            activeExtent = null;
+            active = null;
+            activeExtents.clear();
+            lastExtentPosition = -1;
+        }
+
+        synchronized void close() {
+            closed = true;
+            closeActive();
+        }
+
+        List<Extent> findExtents(long logId) {
+            List<Segment> sealed = new ArrayList<>();
+            List<Extent> activeList = new ArrayList<>();
+            synchronized (this) {
+                for (Segment segment : segments) {
+                    if (segment != active) {
+                        sealed.add(segment);
+                    }
+                }
+                ExtentList list = activeExtents.get(logId);
+                if (list != null) {
+                    list.copyTo(active.dataFile, activeList);
+                }
+            }
+            // the active segment is the last one, sealed segments are searched outside the lock
+            List<Extent> extents = new ArrayList<>();
+            for (Segment segment : sealed) {
+                segment.find(logId, extents);
+            }
+            extents.addAll(activeList);
+            return extents;
+        }
+
+        JobLogLineIndex lineIndex(long logId) {
+            synchronized (lineIndexes) {
+                return lineIndexes.computeIfAbsent(logId, key -> JobLogLineIndex.load(null, 0));
+            }
+        }
+    }
+
+    /**
+     * 分段文件
+     */
+    private static final class Segment {
+        private final int number;
+        private final File dataFile;
+        private final File extentFile;
+        private final File indexFile;
+
+        /**
+         * 排序索引覆盖的区间数，-1表示未加载
+         */
+        private long indexedRecords = -1;
+        private long minLogId;
+        private long maxLogId;
+
+        private Segment(File dayDir, int number) {
+            this.number = number;
+            String name = SEGMENT_PREFIX + String.format("%06d", number);
+            this.dataFile = new File(dayDir, name + DATA_SUFFIX);
+            this.extentFile = new File(dayDir, name + EXTENT_SUFFIX);
+            this.indexFile = new File(dayDir, name + INDEX_SUFFIX);
+        }
+
+        private synchronized void dropIndex() {
+            indexedRecords = -1;
+            if (indexFile.exists() && !indexFile.delete()) {
+                log.warn(">>>>>>>>>>> xxl-job, delete log segment index fail: {}", indexFile.getPath());
+            }
+        }
+
+        /**
+         * 在排序索引中查找日志ID的区间，索引不存在或与区间文件不一致时先重建
+         */
+        private synchronized void find(long logId, List<Extent> extents) {
+            long records = extentFile.length() / EXTENT_BYTES;
+            if (records == 0) {
+                return;
+            }
+            try (FileChannel channel = openIndex(records)) {
+                if (logId < minLogId || logId > maxLogId) {
+                    return;
+                }
+                ByteBuffer record = ByteBuffer.allocate(EXTENT_BYTES);
+                // first record of the log id
+                long low = 0;
+                long high = records;
+                while (low < high) {
+                    long mid = (low + high) >>> 1;
+                    if (readRecord(channel, mid, record).getLong() < logId) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                for (long i = low; i < records; i++) {
+                    readRecord(channel, i, record);
+                    if (record.getLong() != logId) {
+                        break;
+                    }
+                    extents.add(new Extent(dataFile, record.getLong(), record.getInt()));
+                }
+            } catch (IOException e) {
+                indexedRecords = -1;
+                log.warn(">>>>>>>>>>> xxl-job, read log segment index fail: {}", indexFile.getPath(), e);
+            }
+        }
+
+        private FileChannel openIndex(long records) throws IOException {
+            if (indexedRecords != records) {
+                if (indexFile.length() != records * EXTENT_BYTES) {
+                    writeIndex(records);
+                }
+                try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer record = ByteBuffer.allocate(EXTENT_BYTES);
+                    minLogId = readRecord(channel, 0, record).getLong();
+                    maxLogId = readRecord(channel, records - 1, record).getLong();
+                }
+                indexedRecords = records;
+            }
+            return FileChannel.open(indexFile.toPath(), StandardOpenOption.READ);
+        }
+
+        /**
+         * 将区间文件按日志ID稳定排序后写入索引文件，同一日志ID的区间保持写入顺序
+         */
+        private void writeIndex(long records) throws IOException {
+            int count = (int) records;
+            long[] logIds = new long[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            int[] read = {0};
+            forEachExtent((logId, offset, length) -> {
+                if (read[0] < count) {
+                    logIds[read[0]] = logId;
+                    offsets[read[0]] = offset;
+                    lengths[read[0]] = length;
+                    read[0]++;
+                }
+            });
+            if (read[0] != count) {
+                throw new IOException("log segment extents changed while indexing: " + extentFile.getPath());
+            }
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(logIds[a], logIds[b]));
+
+            File tempFile = new File(indexFile.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), SCAN_BUFFER_SIZE))) {
+                for (int i : order) {
+                    out.writeLong(logIds[i]);
+                    out.writeLong(offsets[i]);
+                    out.writeInt(lengths[i]);
+                }
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        private static ByteBuffer readRecord(FileChannel channel, long index, ByteBuffer record) throws IOException {
+            record.clear();
+            long position = index * EXTENT_BYTES;
+            while (record.hasRemaining()) {
+                if (channel.read(record, position + record.position()) < 0) {
+                    throw new IOException("unexpected end of log segment index");
+                }
+            }
+            record.flip();
+            return record;
+        }
+
+        private void forEachExtent(ExtentConsumer consumer) {
+            // also runs on job threads when the active segment is reopened, RandomAccessFile is not closed by interrupts
+            try (RandomAccessFile file = new RandomAccessFile(extentFile, "r")) {
+                long size = file.length() / EXTENT_BYTES * EXTENT_BYTES;
+                byte[] bytes = new byte[SCAN_BUFFER_SIZE];
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long position = 0;
+                while (position < size) {
+                    int count = (int) Math.min(bytes.length, size - position);
+                    file.seek(position);
+                    file.readFully(bytes, 0, count);
+                    buffer.clear();
+                    buffer.limit(count);
+                    while (buffer.remaining() >= EXTENT_BYTES) {
+                        consumer.accept(buffer.getLong(), buffer.getLong(), buffer.getInt());
+                    }
+                    position += count;
+                }
+            } catch (IOException e) {
+                log.warn(">>>>>>>>>>> xxl-job, read log segment extents fail: {}", extentFile.getPath(), e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExtentConsumer {
+        void accept(long logId, long offset, int length);
+    }
+
+    /**
+     * 一个日志ID在正在写入的分段中的区间
+     */
+    private static final class ExtentList {
+        private long[] offsets = new long[4];
+        private int[] lengths = new int[4];
+        private int size;
+
+        private void add(long offset, int length) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size << 1);
+                lengths = Arrays.copyOf(lengths, size << 1);
+            }
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+
+        private void extendLast(int length) {
+            lengths[size - 1] += length;
+        }
+
+        private void copyTo(File dataFile, List<Extent> extents) {
+            for (int i = 0; i < size; i++) {
+                extents.add(new Extent(dataFile, offsets[i], lengths[i]));
+            }
+        }
+    }
+
+    private static final class Extent {
+        private final File dataFile;
+        private final long offset;
+        private final int length;
+
+        private Extent(File dataFile, long offset, int length) {
+            this.dataFile = dataFile;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 一次触发在各分段中的区间按顺序拼接成的日志内容
+     */
+    private static final class SegmentSource implements JobLogSource {
+        private final Extent[] extents;
+        /**
+         * starts[i] 为第i个区间在日志内容中的起始位置，starts[n] 为总长度
+         */
+        private final long[] starts;
+        private final Map<File, JobLogSource> dataSources = new HashMap<>();
+        private final JobLogLineIndex lineIndex;
+
+        private SegmentSource(List<Extent> extentList, JobLogLineIndex lineIndex) {
+            this.extents = extentList.toArray(new Extent[0]);
+            this.lineIndex = lineIndex;
+            this.starts = new long[extents.length + 1];
+            for (int i = 0; i < extents.length; i++) {
+                starts[i + 1] = starts[i] + extents[i].length;
+            }
+        }
+
+        @Override
+        public long size() {
+            return starts[extents.length];
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (position >= size()) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(starts, position);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            int total = 0;
+            while (dst.hasRemaining() && index < extents.length) {
+                Extent extent = extents[index];
+                long inExtent = position - starts[index];
+                int count = (int) Math.min(dst.remaining(), extent.length - inExtent);
+                ByteBuffer slice = dst.duplicate();
+                slice.limit(slice.position() + count);
+                int read = dataSource(extent.dataFile).read(slice, extent.offset + inExtent);
+                if (read <= 0) {
+                    break;
+                }
+                dst.position(dst.position() + read);
+                total += read;
+                position += read;
+                if (read == count) {
+                    index++;
+                }
+            }
+            return total;
+        }
+
+        private JobLogSource dataSource(File dataFile) throws IOException {
+            JobLogSource dataSource = dataSources.get(dataFile);
+            if (dataSource == null) {
+                File compressedFile = new File(dataFile.getPath() + BlockGzip.SUFFIX);
+                // compressed by the log clean thread
+                dataSource = !dataFile.exists() && compressedFile.exists()
+                        ? BlockGzip.open(compressedFile)
+                        : FileJobLogStore.open(dataFile);
+                dataSources.put(dataFile, dataSource);
+            }
+            return dataSource;
+        }
+
+        @Override
+        public File indexFile() {
+            // one index file per log would defeat the segments, the line index is cached in memory instead
+            return null;
+        }
+
+        @Override
+        public JobLogLineIndex lineIndex() throws IOException {
+            return lineIndex != null ? lineIndex : JobLogSource.super.lineIndex();
+        }
+
+        @Override
+        public void close() {
+            Iterator<JobLogSource> iterator = dataSources.values().iterator();
+            while (iterator.hasNext()) {
+                try {
+                    iterator.next().close();
+                } catch (IOException e) {
+                    log.warn(">>>>>>>>>>> xxl-job, close log segment fail.", e);
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void writeAt(RandomAccessFile file, byte[] b, int off, int len, long position) throws IOException {
+        file.seek(position);
+        file.write(b, off, len);
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.warn(">>>>>>>>>>> xxl-job, close log segment fail.", e);
+        }
+    }
+}
@@ -33,6 +33,21 @@ public class LogParam implements Serializable {
         this.fromLineNum = fromLineNum;
     }
 
+    /**
+     * 构造函数（按字节偏移分页读取）
+     *
+     * @param logDateTim 日志日期时间戳
+     * @param logId      日志ID
+     * @param fromOffset 起始字节偏移
+     * @param maxBytes   单次读取的最大字节数
+     */
+    public LogParam(long logDateTim, long logId, long fromOffset, int maxBytes) {
+        this.logDateTim = logDateTim;
+        this.logId = logId;
+        this.fromOffset = fromOffset;
+        this.maxBytes = maxBytes;
+    }
+
     /**
      * 日志日期时间戳
      */
@@ -49,4 +64,16 @@ public class LogParam implements Serializable {
      */
     private int fromLineNum;
 
+    /**
+     * 起始字节偏移
+     * 大于等于0时按字节偏移分页读取（忽略起始行号），下一页从上次返回的 toOffset 开始
+     */
+    private long fromOffset = -1;
+
+    /**
+     * 单次读取的最大字节数
+     * 小于等于0时使用默认值，超过上限时按上限读取
+     */
+    private int maxBytes;
+
 }
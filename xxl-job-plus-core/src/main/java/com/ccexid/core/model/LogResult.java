@@ -33,6 +33,16 @@ public class LogResult implements Serializable {
      */
     private boolean isEnd;
 
+    /**
+     * 起始字节偏移，按字节偏移分页读取时有效
+     */
+    private long fromOffset;
+
+    /**
+     * 结束字节偏移（不含），即下一页的起始字节偏移，按字节偏移分页读取时有效
+     */
+    private long toOffset;
+
     public LogResult(int fromLineNum, int toLineNum, String logContent, boolean isEnd) {
         this.fromLineNum = fromLineNum;
         this.toLineNum = toLineNum;
@@ -40,6 +50,13 @@ public class LogResult implements Serializable {
         this.isEnd = isEnd;
     }
 
+    public LogResult(long fromOffset, long toOffset, String logContent, boolean isEnd) {
+        this.fromOffset = fromOffset;
+        this.toOffset = toOffset;
+        this.logContent = logContent;
+        this.isEnd = isEnd;
+    }
+
     public LogResult() {
     }
 }
@@ -0,0 +1,47 @@
+package com.ccexid.core.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 日志检索命中实体类
+ * 一条匹配的日志行，可通过日志时间、日志ID及行号查看完整日志
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Data
+public class LogSearchHit implements Serializable {
+    private static final long serialVersionUID = 42L;
+
+    /**
+     * 日志日期时间戳（当天零点）
+     */
+    private long logDateTim;
+
+    /**
+     * 日志ID
+     */
+    private long logId;
+
+    /**
+     * 行号（从1开始）
+     */
+    private int lineNum;
+
+    /**
+     * 匹配行的内容，过长时截取匹配位置附近的片段
+     */
+    private String snippet;
+
+    public LogSearchHit(long logDateTim, long logId, int lineNum, String snippet) {
+        this.logDateTim = logDateTim;
+        this.logId = logId;
+        this.lineNum = lineNum;
+        this.snippet = snippet;
+    }
+
+    public LogSearchHit() {
+    }
+}
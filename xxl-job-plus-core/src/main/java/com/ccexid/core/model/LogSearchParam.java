@@ -0,0 +1,76 @@
+package com.ccexid.core.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 日志检索参数实体类
+ * 用于封装在执行器任务日志中检索关键字的请求参数
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Data
+public class LogSearchParam implements Serializable {
+    private static final long serialVersionUID = 42L;
+
+    /**
+     * 无参构造函数
+     */
+    public LogSearchParam() {
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param fromDateTim 起始日期时间戳
+     * @param toDateTim   结束日期时间戳
+     * @param pattern     检索内容
+     */
+    public LogSearchParam(long fromDateTim, long toDateTim, String pattern) {
+        this.fromDateTim = fromDateTim;
+        this.toDateTim = toDateTim;
+        this.pattern = pattern;
+    }
+
+    /**
+     * 起始日期时间戳
+     * 按日期检索（包含当天），小于等于0时与结束日期相同
+     */
+    private long fromDateTim;
+
+    /**
+     * 结束日期时间戳
+     * 按日期检索（包含当天），小于等于0时为当前时间
+     */
+    private long toDateTim;
+
+    /**
+     * 检索内容
+     */
+    private String pattern;
+
+    /**
+     * 检索内容是否为正则表达式，默认按字面内容匹配
+     */
+    private boolean regex;
+
+    /**
+     * 是否忽略大小写
+     */
+    private boolean ignoreCase;
+
+    /**
+     * 最多返回的匹配行数
+     * 小于等于0时使用默认值，超过上限时按上限返回
+     */
+    private int maxResults;
+
+    /**
+     * 检索耗时上限（毫秒）
+     * 小于等于0时使用默认值，超过上限时按上限检索，超时返回已检索到的结果
+     */
+    private long timeoutMillis;
+
+}
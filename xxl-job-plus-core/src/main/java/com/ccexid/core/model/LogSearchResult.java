@@ -0,0 +1,54 @@
+package com.ccexid.core.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 日志检索结果实体类
+ * 用于封装日志检索的匹配行及检索过程的统计信息
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Data
+public class LogSearchResult implements Serializable {
+    private static final long serialVersionUID = 42L;
+
+    /**
+     * 匹配的日志行，按日志时间、日志ID倒序，同一日志内按行号顺序
+     */
+    private List<LogSearchHit> hits;
+
+    /**
+     * 检索范围内的日志数
+     */
+    private int totalLogs;
+
+    /**
+     * 已检索的日志数
+     */
+    private int scannedLogs;
+
+    /**
+     * 已检索的字节数
+     */
+    private long scannedBytes;
+
+    /**
+     * 是否因达到返回行数上限而提前结束
+     */
+    private boolean truncated;
+
+    /**
+     * 是否因超过耗时上限而提前结束
+     */
+    private boolean timedOut;
+
+    /**
+     * 检索耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+}
@@ -1,5 +1,8 @@
 package com.ccexid.core.props;
 
+import com.ccexid.core.codec.BinaryJobCodec;
+import com.ccexid.core.enums.ExecutorEngine;
+import com.ccexid.core.enums.JobLogStoreType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -26,6 +29,56 @@ public class JobPlusProperties {
      */
     private static final Integer LOG_RETENTION_DAYS_DEFAULT = 30;
 
+    /**
+     * 默认单个作业的触发队列容量（不限制）
+     */
+    private static final Integer TRIGGER_QUEUE_CAPACITY_DEFAULT = 0;
+
+    /**
+     * 默认执行器内所有作业排队触发数上限（不限制）
+     */
+    private static final Integer TRIGGER_QUEUE_TOTAL_CAPACITY_DEFAULT = 0;
+
+    /**
+     * 默认日志分段文件大小（MB）
+     */
+    private static final Integer LOG_SEGMENT_MAX_MB_DEFAULT = 64;
+
+    /**
+     * 默认异步日志队列容量
+     */
+    private static final Integer LOG_ASYNC_QUEUE_CAPACITY_DEFAULT = 65536;
+
+    /**
+     * 默认异步日志最多保持打开的文件数
+     */
+    private static final Integer LOG_ASYNC_MAX_OPEN_FILES_DEFAULT = 64;
+
+    /**
+     * 默认异步日志刷新间隔（毫秒）
+     */
+    private static final Integer LOG_ASYNC_FLUSH_INTERVAL_MILLIS_DEFAULT = 200;
+
+    /**
+     * 默认单批最大回调数
+     */
+    private static final Integer CALLBACK_BATCH_SIZE_DEFAULT = 100;
+
+    /**
+     * 默认单批最大大小（KB）
+     */
+    private static final Integer CALLBACK_BATCH_MAX_KB_DEFAULT = 1024;
+
+    /**
+     * 默认同时进行的回调请求数
+     */
+    private static final Integer CALLBACK_MAX_IN_FLIGHT_DEFAULT = 2;
+
+    /**
+     * 默认内存回调队列容量
+     */
+    private static final Integer CALLBACK_QUEUE_CAPACITY_DEFAULT = 10000;
+
     @Data
     public static class AdminProperties {
         /**
@@ -76,6 +129,145 @@ public class JobPlusProperties {
          * 小于3天则不清理
          */
         private int logRetentionDays = LOG_RETENTION_DAYS_DEFAULT;
+
+        /**
+         * 日志目录总大小上限（MB）
+         * 超出后从最旧的日志开始淘汰（当天的日志不淘汰），小于等于0时不限制
+         */
+        private int logRetentionMaxSizeMb = 0;
+
+        /**
+         * 日志压缩天数
+         * 超过该天数的日志按日期目录压缩保存（仍可在调度中心查看），小于等于0时不压缩
+         */
+        private int logCompressAfterDays = 0;
+
+        /**
+         * 任务日志存储方式
+         * FILE：每次触发一个日志文件；SEGMENT：同一天的日志追加到少量滚动的分段文件中，适合触发频繁的执行器
+         */
+        private JobLogStoreType logStoreType = JobLogStoreType.FILE;
+
+        /**
+         * 分段存储时单个分段文件的大小（MB），超过后滚动到新的分段
+         */
+        private int logSegmentMaxMb = LOG_SEGMENT_MAX_MB_DEFAULT;
+
+        /**
+         * 是否异步写入任务日志
+         * 开启后日志行由后台线程批量写入并缓存文件句柄，任务结束及读取日志时落盘
+         */
+        private boolean logAsync = false;
+
+        /**
+         * 异步日志队列容量
+         * 队列已满时写日志的线程等待
+         */
+        private int logAsyncQueueCapacity = LOG_ASYNC_QUEUE_CAPACITY_DEFAULT;
+
+        /**
+         * 异步日志最多保持打开的文件数
+         */
+        private int logAsyncMaxOpenFiles = LOG_ASYNC_MAX_OPEN_FILES_DEFAULT;
+
+        /**
+         * 异步日志刷新间隔（毫秒）
+         */
+        private int logAsyncFlushIntervalMillis = LOG_ASYNC_FLUSH_INTERVAL_MILLIS_DEFAULT;
+
+        /**
+         * 任务日志是否记录调用位置（类名、方法名、行号）
+         * 关闭后不再采集调用堆栈，适合高频打印日志的作业
+         */
+        private boolean logCallerLocation = true;
+
+        /**
+         * 单次触发的日志大小上限（MB）
+         * 超出后保留头部及滚动的尾部，中间部分丢弃并写入截断标记（含脚本输出），小于等于0时不限制
+         */
+        private int logMaxMbPerTrigger = 0;
+
+        /**
+         * 单个作业每天的日志大小上限（MB）
+         * 超出后该作业当天新的触发只保留少量头尾日志，小于等于0时不限制
+         */
+        private int logMaxMbPerJob = 0;
+
+        /**
+         * 是否启用虚拟线程
+         * 开启后任务线程及并行执行线程使用虚拟线程，JVM不支持（低于JDK 21）时回退为平台线程
+         */
+        private boolean virtualThreadEnabled = false;
+
+        /**
+         * 执行器引擎
+         * THREAD：每个作业独占一个任务线程；POOL：作业触发邮箱由共享工作线程池统一排空
+         */
+        private ExecutorEngine engine = ExecutorEngine.THREAD;
+
+        /**
+         * 共享工作线程池大小
+         * 仅在POOL引擎下生效，小于等于0时使用CPU核数
+         */
+        private int workerPoolSize = 0;
+
+        /**
+         * 并行执行策略下单个作业的默认最大并行数
+         * 小于等于0时使用CPU核数，可通过 @XxlJob(concurrency) 按作业覆盖
+         */
+        private int concurrency = 0;
+
+        /**
+         * 单个作业的触发队列容量
+         * 队列已满时拒绝新的触发并返回队列已满响应码，小于等于0表示不限制；默认不限制，与之前的行为一致，需要时按作业触发量设置（如1000）
+         */
+        private int triggerQueueCapacity = TRIGGER_QUEUE_CAPACITY_DEFAULT;
+
+        /**
+         * 执行器内所有作业排队触发数上限
+         * 达到上限时拒绝新的触发并返回队列已满响应码，小于等于0表示不限制；默认不限制，需要时按执行器内存设置（如100000）
+         */
+        private int triggerQueueTotalCapacity = TRIGGER_QUEUE_TOTAL_CAPACITY_DEFAULT;
+
+        /**
+         * 持久化编解码器名称（失败回调WAL等）
+         * 内置 binary、jdk，可通过 ServiceLoader 注册自定义编解码器；切换后已写入的数据仍按原编解码器读取
+         */
+        private String codec = BinaryJobCodec.NAME;
+
+        /**
+         * 是否读取 jdk 编解码器写入的数据
+         * JDK反序列化存在安全风险，默认不读取；从 jdk 切换到其他编解码器后，需开启以读取切换前写入的失败回调，读取完毕后可关闭
+         */
+        private boolean codecJdkDecodeEnabled = false;
+
+        /**
+         * 单批最大回调数
+         * 排队的执行结果合并为一批回调调度中心，小于等于0时使用默认值
+         */
+        private int callbackBatchSize = CALLBACK_BATCH_SIZE_DEFAULT;
+
+        /**
+         * 单批最大大小（KB），按回调参数估算，小于等于0时使用默认值
+         */
+        private int callbackBatchMaxKb = CALLBACK_BATCH_MAX_KB_DEFAULT;
+
+        /**
+         * 回调凑批等待时长（毫秒）
+         * 排队的执行结果不足一批时最多等待该时长，0表示只合并已排队的执行结果
+         */
+        private long callbackLingerMillis = 0;
+
+        /**
+         * 同时进行的回调请求数，小于等于0时使用默认值
+         */
+        private int callbackMaxInFlight = CALLBACK_MAX_IN_FLIGHT_DEFAULT;
+
+        /**
+         * 内存回调队列容量
+         * 超出的执行结果写入日志目录 callback-log 下的溢出队列，内存队列取空后按顺序读回，小于等于0时不限制
+         */
+        private int callbackQueueCapacity = CALLBACK_QUEUE_CAPACITY_DEFAULT;
     }
 
     /**
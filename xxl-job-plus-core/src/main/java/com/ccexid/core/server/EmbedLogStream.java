@@ -0,0 +1,191 @@
+package com.ccexid.core.server;
+
+import com.ccexid.core.log.JobLogFileAppender;
+import com.ccexid.core.log.JobLogListener;
+import com.ccexid.core.model.LogResult;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 任务日志流（Server-Sent Events）
+ * 以 chunked 响应推送日志：写入日志时收到通知，从上次推送的字节偏移读取新增的完整行，以 "log" 事件发送（id 为读取后的字节偏移，
+ * 可作为 fromOffset 断点续传）；任务结束时推送剩余内容及 "end" 事件并结束响应。读取合并在 {@link #READ_INTERVAL_MILLIS} 内进行
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class EmbedLogStream implements JobLogListener {
+
+    /**
+     * 两次读取的最小间隔，合并高频写入的通知
+     */
+    private static final long READ_INTERVAL_MILLIS = 100;
+    /**
+     * 心跳间隔，低于连接空闲关闭时间
+     */
+    private static final long HEARTBEAT_SECONDS = 30;
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+
+    private final ChannelHandlerContext ctx;
+    private final String logFileName;
+    private final Executor readExecutor;
+    private final boolean keepAlive;
+
+    private final AtomicBoolean readScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean logEnded;
+    private long offset;
+    private ScheduledFuture<?> heartbeat;
+
+    EmbedLogStream(ChannelHandlerContext ctx, String logFileName, long fromOffset, Executor readExecutor, boolean keepAlive) {
+        this.ctx = ctx;
+        this.logFileName = logFileName;
+        this.offset = Math.max(fromOffset, 0);
+        this.readExecutor = readExecutor;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * 发送响应头并开始推送
+     */
+    void start() {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/event-stream;charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
+        HttpUtil.setTransferEncodingChunked(response, true);
+        if (keepAlive) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        }
+        ctx.writeAndFlush(response);
+
+        ctx.channel().closeFuture().addListener(future -> close());
+        heartbeat = ctx.executor().scheduleAtFixedRate(
+                () -> write(": ping\n\n"), HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+
+        if (!JobLogFileAppender.addListener(logFileName, this)) {
+            // not running, send what is there and end
+            logEnded = true;
+        }
+        scheduleRead(0);
+    }
+
+    @Override
+    public void onAppend() {
+        scheduleRead(READ_INTERVAL_MILLIS);
+    }
+
+    @Override
+    public void onEnd() {
+        logEnded = true;
+        readScheduled.set(false);
+        scheduleRead(0);
+    }
+
+    private void scheduleRead(long delayMillis) {
+        if (closed.get() || !readScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        ctx.executor().schedule(() -> readExecutor.execute(this::read), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void read() {
+        if (closed.get()) {
+            return;
+        }
+        readScheduled.set(false);
+        // captured before reading, everything up to the end is written by now
+        boolean ended = logEnded;
+        try {
+            while (ctx.channel().isActive()) {
+                if (!ctx.channel().isWritable()) {
+                    // slow client, retry later
+                    scheduleRead(READ_INTERVAL_MILLIS);
+                    return;
+                }
+                LogResult logResult = JobLogFileAppender.readLogChunk(logFileName, offset, READ_CHUNK_BYTES, !ended);
+                if (logResult.getToOffset() <= offset) {
+                    break;
+                }
+                offset = logResult.getToOffset();
+                write(logEvent(logResult.getLogContent()));
+                if (logResult.isEnd()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error(">>>>>>>>>>> xxl-job, log stream read error: {}", logFileName, e);
+            ended = true;
+        }
+        if (ended) {
+            write("id: " + offset + "\nevent: end\ndata: " + offset + "\n\n");
+            finish();
+        }
+    }
+
+    private String logEvent(String content) {
+        StringBuilder sb = new StringBuilder(content.length() + 64);
+        sb.append("id: ").append(offset).append("\nevent: log\n");
+        int start = 0;
+        int length = content.endsWith("\n") ? content.length() - 1 : content.length();
+        while (start <= length) {
+            int end = content.indexOf('\n', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            sb.append("data: ").append(content, start, end).append('\n');
+            start = end + 1;
+        }
+        return sb.append('\n').toString();
+    }
+
+    private void write(String event) {
+        if (ctx.channel().isActive()) {
+            ctx.writeAndFlush(new DefaultHttpContent(Unpooled.copiedBuffer(event, CharsetUtil.UTF_8)));
+        }
+    }
+
+    private void finish() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        release();
+        if (ctx.channel().isActive()) {
+            if (keepAlive) {
+                ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+            } else {
+                ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+    }
+
+    private void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    private void release() {
+        JobLogFileAppender.removeListener(logFileName, this);
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ccexid.core.server;
 import com.ccexid.core.biz.ExecutorBiz;
 import com.ccexid.core.biz.impl.ExecutorBizImpl;
 import com.ccexid.core.enums.ResponseCode;
+import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.model.*;
 import com.ccexid.core.thread.ExecutorRegistryThread;
 import com.ccexid.core.util.GsonTool;
@@ -23,6 +24,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -111,6 +113,7 @@ public class EmbedServer {
 
     public static class EmbedHttpServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         private static final Logger logger = LoggerFactory.getLogger(EmbedHttpServerHandler.class);
+        private static final String LOG_STREAM_URI = "/logStream";
 
         private final ExecutorBiz executorBiz;
         private final String accessToken;
@@ -131,6 +134,12 @@ public class EmbedServer {
             boolean keepAlive = HttpUtil.isKeepAlive(msg);
             String accessTokenReq = msg.headers().get(XxlJobRemotingUtil.XXL_JOB_ACCESS_TOKEN);
 
+            // log stream, respond with chunked server-sent events
+            if (LOG_STREAM_URI.equals(uri)) {
+                bizThreadPool.execute(() -> streamLog(ctx, httpMethod, requestData, accessTokenReq, keepAlive));
+                return;
+            }
+
             // invoke
             bizThreadPool.execute(() -> {
                 // do invoke
@@ -144,6 +153,32 @@ public class EmbedServer {
             });
         }
 
+        /**
+         * 推送任务日志流，任务执行中持续推送新增日志，任务结束（或日志不在写入中）时推送剩余内容后结束
+         * 请求参数同 /log，fromOffset 为起始字节偏移（小于0时从头开始）
+         */
+        private void streamLog(ChannelHandlerContext ctx, HttpMethod httpMethod, String requestData, String accessTokenReq, boolean keepAlive) {
+            Object errorResponse = null;
+            try {
+                if (HttpMethod.POST != httpMethod) {
+                    errorResponse = ResponseEntity.of(ResponseCode.NOT_SUPPORT);
+                } else if (StringUtils.isNotBlank(accessToken) && !accessToken.equals(accessTokenReq)) {
+                    errorResponse = ResponseEntity.of(ResponseCode.UNAUTHORIZED);
+                } else {
+                    LogParam logParam = GsonTool.fromJson(requestData, LogParam.class);
+                    // log filename: logPath/yyyy-MM-dd/9999.log
+                    String logFileName = JobLogFileAppender.makeLogFileName(new Date(logParam.getLogDateTim()), logParam.getLogId());
+                    new EmbedLogStream(ctx, logFileName, logParam.getFromOffset(), bizThreadPool, keepAlive).start();
+                }
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+                errorResponse = ResponseEntity.of(ResponseCode.INTERNAL_SERVER_ERROR, "request error:" + ThrowableUtil.toString(e));
+            }
+            if (errorResponse != null) {
+                writeResponse(ctx, keepAlive, GsonTool.toJson(errorResponse));
+            }
+        }
+
         private Object process(HttpMethod httpMethod, String uri, String requestData, String accessTokenReq) {
             // valid
             if (HttpMethod.POST != httpMethod) {
@@ -174,6 +209,9 @@ public class EmbedServer {
                     case "/log":
                         LogParam logParam = GsonTool.fromJson(requestData, LogParam.class);
                         return executorBiz.log(logParam);
+                    case "/logSearch":
+                        LogSearchParam logSearchParam = GsonTool.fromJson(requestData, LogSearchParam.class);
+                        return executorBiz.logSearch(logSearchParam);
                     default:
                         return ResponseEntity.of(ResponseCode.NOT_FOUND);
                 }
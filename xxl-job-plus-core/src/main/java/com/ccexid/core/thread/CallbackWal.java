@@ -0,0 +1,738 @@
+package com.ccexid.core.thread;
+
+import com.ccexid.core.codec.JdkJobCodec;
+import com.ccexid.core.codec.JobCodecs;
+import com.ccexid.core.model.HandleCallbackParam;
+import com.ccexid.core.util.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 失败回调预写日志（WAL）
+ * 回调失败的批次以记录形式追加到分段文件 callback-{segment}.wal，记录格式为 [长度][CRC32][负载]，负载为 {@link JobCodecs} 编码（带编解码器标识）的回调参数列表；
+ * 并发追加时合并刷盘（一次 fsync 覆盖此前已写入的所有记录）。重试从确认游标 callback.cursor 处逐条读取，
+ * 回调成功后推进游标，游标之前的分段整体删除。启动时截断活动分段末尾不完整的记录，并迁移旧版本逐批次写入的失败回调文件。
+ * 同一目录下可按名称打开多个WAL（如回调队列溢出）。
+ * 追加可能在任务线程中进行，活动分段和游标使用不响应中断的 RandomAccessFile / FileOutputStream 写入，被中断的线程不会关闭共享的文件
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+final class CallbackWal {
+
+    /**
+     * 失败回调WAL的名称
+     */
+    static final String NAME_CALLBACK = "callback";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CURSOR_SUFFIX = ".cursor";
+    private static final String LEGACY_FILE_PREFIX = "xxl-job-callback-";
+
+    /**
+     * 记录头：负载长度 + 负载CRC32
+     */
+    private static final int HEADER_BYTES = 8;
+    /**
+     * 单条记录负载上限，超出视为损坏
+     */
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    /**
+     * 活动分段达到该大小后滚动到新分段
+     */
+    private static final long SEGMENT_MAX_BYTES = 16 * 1024 * 1024;
+    /**
+     * 活动分段已全部确认且不小于该大小时滚动，使其可以被删除
+     */
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    private final File dir;
+    private final String segmentPrefix;
+    private final String cursorFileName;
+    private final Object syncLock = new Object();
+
+    /**
+     * 分段编号 -> 文件，只在持有 this 锁时访问
+     */
+    private final TreeMap<Long, File> segments = new TreeMap<>();
+    private long activeSegment;
+    private RandomAccessFile activeFile;
+    private long activeSize;
+
+    /**
+     * 确认游标
+     */
+    private long cursorSegment;
+    private long cursorOffset;
+
+    /**
+     * 下一条待读取记录的位置，不早于确认游标；{@link #next()} 可以读取到游标之后尚未确认的记录
+     */
+    private long nextSegment;
+    private long nextOffset;
+
+    private long readSegment = -1;
+    private FileChannel readChannel;
+
+    /**
+     * 未确认的记录数，跳过损坏的记录时可能不准确，读完全部记录时归零
+     */
+    private long pendingCount;
+
+    /**
+     * 已刷盘位置，只在持有 syncLock 时访问（滚动前的分段已刷盘）
+     */
+    private long syncedSegment;
+    private long syncedSize;
+
+    private CallbackWal(File dir, String name) {
+        this.dir = dir;
+        this.segmentPrefix = name + "-";
+        this.cursorFileName = name + CURSOR_SUFFIX;
+    }
+
+    /**
+     * 打开目录下的WAL，不存在时创建
+     *
+     * @param dir 失败回调目录
+     * @return WAL
+     * @throws IOException 目录或文件无法读写
+     */
+    static CallbackWal open(File dir) throws IOException {
+        return open(dir, NAME_CALLBACK, true);
+    }
+
+    /**
+     * 打开目录下指定名称的WAL，不存在时创建；同一目录下不同名称的WAL互不影响
+     *
+     * @param dir           目录
+     * @param name          名称，分段文件为 {name}-{segment}.wal，游标文件为 {name}.cursor
+     * @param migrateLegacy 是否迁移旧版本的失败回调文件
+     * @return WAL
+     * @throws IOException 目录或文件无法读写
+     */
+    static CallbackWal open(File dir, String name, boolean migrateLegacy) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("can not create callback wal dir: " + dir.getPath());
+        }
+        CallbackWal wal = new CallbackWal(dir, name);
+        synchronized (wal) {
+            wal.recover();
+        }
+        if (migrateLegacy) {
+            wal.migrateLegacyFiles();
+        }
+        return wal;
+    }
+
+    /**
+     * 是否为WAL使用的文件（分段、游标及其临时文件），清理线程不应删除
+     */
+    static boolean isWalFile(String name) {
+        return name.endsWith(SEGMENT_SUFFIX) || name.contains(CURSOR_SUFFIX);
+    }
+
+    /**
+     * 追加一批回调参数，返回时已刷盘
+     *
+     * @param callbackParamList 回调参数列表
+     * @throws IOException 写入失败
+     */
+    void append(List<HandleCallbackParam> callbackParamList) throws IOException {
+        append(callbackParamList, true);
+    }
+
+    /**
+     * 追加一批回调参数
+     *
+     * @param callbackParamList 回调参数列表
+     * @param sync              是否等待刷盘；不刷盘时数据在操作系统缓存中，进程退出不丢失，掉电可能丢失
+     * @throws IOException 写入失败
+     */
+    void append(List<HandleCallbackParam> callbackParamList, boolean sync) throws IOException {
+        byte[] payload = JobCodecs.encode(callbackParamList);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(crc(payload, payload.length)).put(payload);
+        record.flip();
+
+        long segment;
+        long end;
+        synchronized (this) {
+            ensureOpen();
+            if (activeSize >= SEGMENT_MAX_BYTES) {
+                roll();
+            }
+            activeFile.seek(activeSize);
+            activeFile.write(record.array());
+            activeSize += record.capacity();
+            pendingCount++;
+            segment = activeSegment;
+            end = activeSize;
+        }
+        if (sync) {
+            sync(segment, end);
+        }
+    }
+
+    /**
+     * 读取游标处的记录，不推进游标
+     *
+     * @return 记录，没有未确认的记录时返回null
+     * @throws IOException 读取失败
+     */
+    synchronized Record peek() throws IOException {
+        nextSegment = cursorSegment;
+        nextOffset = cursorOffset;
+        return next();
+    }
+
+    /**
+     * 读取下一条记录，不推进游标；连续调用依次读取游标之后的记录，记录需按读取顺序确认
+     *
+     * @return 记录，已读到末尾时返回null
+     * @throws IOException 读取失败
+     */
+    synchronized Record next() throws IOException {
+        ensureOpen();
+        if (nextSegment < cursorSegment || (nextSegment == cursorSegment && nextOffset < cursorOffset)) {
+            nextSegment = cursorSegment;
+            nextOffset = cursorOffset;
+        }
+        while (true) {
+            boolean active = nextSegment == activeSegment;
+            File file = segments.get(nextSegment);
+            if (file == null) {
+                // segment removed from outside, continue with the next one
+                Long next = segments.higherKey(nextSegment);
+                if (next == null) {
+                    return null;
+                }
+                skipTo(next, 0);
+                continue;
+            }
+            long limit = active ? activeSize : file.length();
+            if (nextOffset >= limit) {
+                if (active) {
+                    if (isNextAtCursor()) {
+                        pendingCount = 0;
+                    }
+                    return null;
+                }
+                skipTo(segments.higherKey(nextSegment), 0);
+                continue;
+            }
+
+            FileChannel channel = readChannel(file);
+            byte[] payload = readRecord(channel, nextOffset, limit);
+            if (payload != null) {
+                List<HandleCallbackParam> callbackParamList = decode(payload);
+                long end = nextOffset + HEADER_BYTES + payload.length;
+                if (callbackParamList != null && !callbackParamList.isEmpty()) {
+                    Record record = new Record(nextSegment, end, callbackParamList);
+                    nextOffset = end;
+                    return record;
+                }
+                log.warn(">>>>>>>>>>> xxl-job, callback wal skip unreadable record, segment:{}, offset:{}", file.getName(), nextOffset);
+                pendingCount = Math.max(pendingCount - 1, 0);
+                skipTo(nextSegment, end);
+                continue;
+            }
+
+            // corrupt record, the rest of the segment can not be located
+            log.error(">>>>>>>>>>> xxl-job, callback wal corrupt record, skip rest of segment:{}, offset:{}, skipped bytes:{}",
+                    file.getName(), nextOffset, limit - nextOffset);
+            if (active) {
+                if (isNextAtCursor()) {
+                    pendingCount = 0;
+                }
+                skipTo(nextSegment, limit);
+                return null;
+            }
+            skipTo(segments.higherKey(nextSegment), 0);
+        }
+    }
+
+    private boolean isNextAtCursor() {
+        return nextSegment == cursorSegment && nextOffset == cursorOffset;
+    }
+
+    /**
+     * 跳过无法读取的记录或分段；没有已读取未确认的记录时同时推进游标
+     */
+    private void skipTo(long segment, long offset) throws IOException {
+        if (isNextAtCursor()) {
+            moveCursor(segment, offset);
+        }
+        nextSegment = segment;
+        nextOffset = offset;
+    }
+
+    /**
+     * 确认记录已回调成功，推进游标并删除已全部确认的分段
+     *
+     * @param record {@link #peek()} 或 {@link #next()} 返回的记录，按读取顺序确认
+     * @throws IOException 游标写入失败
+     */
+    synchronized void ack(Record record) throws IOException {
+        ack(record, true);
+    }
+
+    /**
+     * 确认记录，推进游标并删除已全部确认的分段
+     *
+     * @param record  {@link #peek()} 或 {@link #next()} 返回的记录，按读取顺序确认
+     * @param persist 是否立即持久化游标；不持久化时由 {@link #flushCursor()} 或后续删除分段时持久化，
+     *                进程在此之前退出会重新读取这些记录
+     * @throws IOException 游标写入失败
+     */
+    synchronized void ack(Record record, boolean persist) throws IOException {
+        if (record.segment < cursorSegment || (record.segment == cursorSegment && record.end <= cursorOffset)) {
+            return;
+        }
+        pendingCount = Math.max(pendingCount - 1, 0);
+        if (record.segment == activeSegment && record.end == activeSize && activeSize >= COMPACT_MIN_BYTES) {
+            // everything acknowledged, start a new segment so the old one can go
+            roll();
+            moveCursor(activeSegment, 0);
+        } else {
+            moveCursor(record.segment, record.end, persist);
+        }
+    }
+
+    /**
+     * 持久化游标
+     *
+     * @throws IOException 游标写入失败
+     */
+    synchronized void flushCursor() throws IOException {
+        ensureOpen();
+        writeCursor();
+    }
+
+    /**
+     * 未确认的记录数
+     */
+    synchronized long pendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * 未确认的字节数
+     */
+    synchronized long pendingBytes() {
+        long bytes = 0;
+        for (Map.Entry<Long, File> entry : segments.tailMap(cursorSegment, true).entrySet()) {
+            long size = entry.getKey() == activeSegment ? activeSize : entry.getValue().length();
+            bytes += entry.getKey() == cursorSegment ? Math.max(size - cursorOffset, 0) : size;
+        }
+        return bytes;
+    }
+
+    synchronized void close() {
+        closeQuietly(readChannel);
+        readChannel = null;
+        readSegment = -1;
+        if (activeFile != null) {
+            try {
+                writeCursor();
+                activeFile.getFD().sync();
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, callback wal sync error.", e);
+            }
+            closeQuietly(activeFile);
+            activeFile = null;
+        }
+    }
+
+    // ---------------------- recover ----------------------
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long segment = segmentOf(file.getName());
+                if (segment > 0) {
+                    segments.put(segment, file);
+                }
+            }
+        }
+        readCursor();
+
+        // drop segments acknowledged before the last shutdown
+        while (!segments.isEmpty() && segments.firstKey() < cursorSegment) {
+            FileUtil.deleteFile(segments.pollFirstEntry().getValue().getPath());
+        }
+        if (segments.isEmpty()) {
+            long segment = Math.max(cursorSegment, 1);
+            segments.put(segment, segmentFile(segment));
+            cursorSegment = segment;
+            cursorOffset = 0;
+        } else if (cursorSegment < segments.firstKey()) {
+            cursorSegment = segments.firstKey();
+            cursorOffset = 0;
+        }
+
+        activeSegment = segments.lastKey();
+        activeFile = new RandomAccessFile(segments.get(activeSegment), "rw");
+        try (FileChannel channel = FileChannel.open(segments.get(activeSegment).toPath(), StandardOpenOption.READ)) {
+            activeSize = validLength(channel);
+        }
+        if (activeSize < activeFile.length()) {
+            log.warn(">>>>>>>>>>> xxl-job, callback wal truncate incomplete tail, segment:{}, from:{}, to:{}",
+                    segments.get(activeSegment).getName(), activeFile.length(), activeSize);
+            activeFile.setLength(activeSize);
+            activeFile.getFD().sync();
+        }
+        if (cursorSegment == activeSegment && cursorOffset > activeSize) {
+            cursorOffset = activeSize;
+        }
+        nextSegment = cursorSegment;
+        nextOffset = cursorOffset;
+        syncedSegment = activeSegment;
+        syncedSize = activeSize;
+
+        for (Map.Entry<Long, File> entry : segments.tailMap(cursorSegment, true).entrySet()) {
+            long from = entry.getKey() == cursorSegment ? cursorOffset : 0;
+            try (FileChannel channel = FileChannel.open(entry.getValue().toPath(), StandardOpenOption.READ)) {
+                long limit = entry.getKey() == activeSegment ? activeSize : channel.size();
+                pendingCount += countRecords(channel, from, limit);
+            }
+        }
+    }
+
+    /**
+     * 统计记录数，只读取记录头
+     */
+    private static long countRecords(FileChannel channel, long offset, long limit) throws IOException {
+        long count = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (limit - offset >= HEADER_BYTES) {
+            header.clear();
+            if (!readFully(channel, header, offset)) {
+                break;
+            }
+            int length = header.getInt(0);
+            if (length <= 0 || length > limit - offset - HEADER_BYTES) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 活动分段中完整记录的长度
+     */
+    private static long validLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        while (offset < size) {
+            byte[] payload = readRecord(channel, offset, size);
+            if (payload == null) {
+                break;
+            }
+            offset += HEADER_BYTES + payload.length;
+        }
+        return offset;
+    }
+
+    /**
+     * 将旧版本的失败回调文件（每批次一个文件）写入WAL后删除
+     */
+    private void migrateLegacyFiles() {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(LEGACY_FILE_PREFIX));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        Arrays.sort(files);
+        int migrated = 0;
+        for (File file : files) {
+            byte[] bytes = FileUtil.readFileContent(file);
+            if (bytes == null || bytes.length < 1) {
+                FileUtil.deleteFile(file.getPath());
+                continue;
+            }
+            List<HandleCallbackParam> callbackParamList = decodeLegacy(bytes, file);
+            if (callbackParamList == null) {
+                // keep it, removed by the log cleaner when it expires
+                log.warn(">>>>>>>>>>> xxl-job, callback wal can not migrate file: {}", file.getPath());
+                continue;
+            }
+            try {
+                if (!callbackParamList.isEmpty()) {
+                    append(callbackParamList);
+                }
+                FileUtil.deleteFile(file.getPath());
+                migrated++;
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, callback wal migrate file error: {}", file.getPath(), e);
+                return;
+            }
+        }
+        log.info(">>>>>>>>>>> xxl-job, callback wal migrated {} legacy callback files.", migrated);
+    }
+
+    // ---------------------- segment ----------------------
+
+    private void ensureOpen() throws IOException {
+        if (activeFile == null) {
+            throw new IOException("callback wal closed");
+        }
+    }
+
+    /**
+     * 刷盘并切换到新的活动分段
+     */
+    private void roll() throws IOException {
+        activeFile.getFD().sync();
+        closeQuietly(activeFile);
+        long segment = activeSegment + 1;
+        File file = segmentFile(segment);
+        activeFile = new RandomAccessFile(file, "rw");
+        activeFile.setLength(0);
+        segments.put(segment, file);
+        activeSegment = segment;
+        activeSize = 0;
+    }
+
+    /**
+     * 刷盘至指定位置；已被其他线程的刷盘覆盖时直接返回，一次 fsync 覆盖调用时已写入的全部记录
+     * 锁顺序为 syncLock -> this，持有 this 时不获取 syncLock
+     */
+    private void sync(long segment, long end) throws IOException {
+        synchronized (syncLock) {
+            if (syncedSegment > segment || (syncedSegment == segment && syncedSize >= end)) {
+                return;
+            }
+            RandomAccessFile file;
+            long current;
+            long size;
+            synchronized (this) {
+                ensureOpen();
+                file = activeFile;
+                current = activeSegment;
+                size = activeSize;
+            }
+            if (current != segment) {
+                // rolled, the previous segment was synced before closing
+                return;
+            }
+            try {
+                file.getFD().sync();
+            } catch (IOException e) {
+                synchronized (this) {
+                    // closed by a concurrent roll, which synced it
+                    if (activeFile == file) {
+                        throw e;
+                    }
+                }
+            }
+            syncedSegment = current;
+            syncedSize = size;
+        }
+    }
+
+    private FileChannel readChannel(File file) throws IOException {
+        // the read channel is closed when the reading thread is interrupted
+        if (readSegment != nextSegment || readChannel == null || !readChannel.isOpen()) {
+            closeQuietly(readChannel);
+            readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            readSegment = nextSegment;
+        }
+        return readChannel;
+    }
+
+    /**
+     * 移动游标并持久化，删除游标之前的分段
+     */
+    private void moveCursor(long segment, long offset) throws IOException {
+        moveCursor(segment, offset, true);
+    }
+
+    private void moveCursor(long segment, long offset, boolean persist) throws IOException {
+        cursorSegment = segment;
+        cursorOffset = offset;
+        if (persist || segments.firstKey() < cursorSegment) {
+            writeCursor();
+        }
+        while (segments.firstKey() < cursorSegment) {
+            File file = segments.pollFirstEntry().getValue();
+            if (readSegment < cursorSegment) {
+                closeQuietly(readChannel);
+                readChannel = null;
+                readSegment = -1;
+            }
+            FileUtil.deleteFile(file.getPath());
+        }
+    }
+
+    private void readCursor() {
+        File file = new File(dir, cursorFileName);
+        if (!file.isFile()) {
+            return;
+        }
+        byte[] bytes = FileUtil.readFileContent(file);
+        if (bytes == null || bytes.length != 20) {
+            log.warn(">>>>>>>>>>> xxl-job, callback wal invalid cursor file, replay from the first segment.");
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long segment = buffer.getLong();
+        long offset = buffer.getLong();
+        if (buffer.getInt() != crc(bytes, 16) || segment < 1 || offset < 0) {
+            log.warn(">>>>>>>>>>> xxl-job, callback wal corrupt cursor file, replay from the first segment.");
+            return;
+        }
+        cursorSegment = segment;
+        cursorOffset = offset;
+    }
+
+    private void writeCursor() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putLong(cursorSegment).putLong(cursorOffset);
+        buffer.putInt(crc(buffer.array(), 16));
+
+        File tmp = new File(dir, cursorFileName + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), new File(dir, cursorFileName).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), new File(dir, cursorFileName).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ---------------------- record ----------------------
+
+    /**
+     * 解码旧版本写入的失败回调文件，旧版本文件为未带编解码器标识的JDK序列化数据
+     */
+    @SuppressWarnings("unchecked")
+    private static List<HandleCallbackParam> decodeLegacy(byte[] bytes, File file) {
+        try {
+            Object value = JdkJobCodec.decodeLegacyCallbacks(bytes);
+            return value instanceof List ? (List<HandleCallbackParam>) value : null;
+        } catch (IOException e) {
+            log.error(">>>>>>>>>>> xxl-job, callback wal decode legacy file error: {}", file.getPath(), e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<HandleCallbackParam> decode(byte[] payload) {
+        try {
+            Object value = JobCodecs.decode(payload);
+            return value instanceof List ? (List<HandleCallbackParam>) value : null;
+        } catch (IOException e) {
+            log.error(">>>>>>>>>>> xxl-job, callback wal decode record error.", e);
+            return null;
+        }
+    }
+
+    /**
+     * 读取一条记录的负载
+     *
+     * @return 负载，记录不完整或校验失败时返回null
+     */
+    private static byte[] readRecord(FileChannel channel, long offset, long limit) throws IOException {
+        if (limit - offset < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (!readFully(channel, header, offset)) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES || length > limit - offset - HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, offset + HEADER_BYTES) || crc(payload.array(), length) != checksum) {
+            return null;
+        }
+        return payload.array();
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                return false;
+            }
+            position += n;
+        }
+        return true;
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, length);
+        return (int) crc32.getValue();
+    }
+
+    private File segmentFile(long segment) {
+        return new File(dir, String.format("%s%010d%s", segmentPrefix, segment, SEGMENT_SUFFIX));
+    }
+
+    private long segmentOf(String name) {
+        if (!name.startsWith(segmentPrefix) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(segmentPrefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * 一条未确认的记录
+     */
+    static final class Record {
+        private final long segment;
+        private final long end;
+        private final List<HandleCallbackParam> callbackParamList;
+
+        private Record(long segment, long end, List<HandleCallbackParam> callbackParamList) {
+            this.segment = segment;
+            this.end = end;
+            this.callbackParamList = callbackParamList;
+        }
+
+        List<HandleCallbackParam> getCallbackParamList() {
+            return callbackParamList;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.ccexid.core.thread;
 
-import com.ccexid.core.biz.AdminBiz;
+import com.ccexid.core.biz.client.AdminBizRouter;
 import com.ccexid.core.constant.RegisterConstant;
 import com.ccexid.core.enums.RegisterType;
 import com.ccexid.core.executor.JobExecutor;
@@ -9,7 +9,6 @@ import com.ccexid.core.model.ResponseEntity;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -51,8 +50,8 @@ public class ExecutorRegistryThread implements IThread {
 
     @Override
     public void start() {
-        List<AdminBiz> adminBizList = JobExecutor.getAdminBizList();
-        if (adminBizList == null || adminBizList.isEmpty()) {
+        AdminBizRouter adminBizRouter = JobExecutor.getAdminBizRouter();
+        if (adminBizRouter == null || adminBizRouter.getEndpoints().isEmpty()) {
             log.warn(">>>>>>>>>>> xxl-job, executor registry config fail, adminBizList is null or empty.");
             return;
         }
@@ -61,25 +60,21 @@ public class ExecutorRegistryThread implements IThread {
             while (!toStop) {
                 try {
                     RegistryParam registryParam = new RegistryParam(RegisterType.EXECUTOR.name(), appName, address);
-                    boolean registrySuccess = false;
-                    for (AdminBiz adminBiz : adminBizList) {
-                        try {
-                            ResponseEntity<String> registryResult = adminBiz.registry(registryParam);
-                            if (registryResult != null && ResponseEntity.isSuccess(registryResult)) {
-                                log.debug(">>>>>>>>>>> xxl-job registry success, registryParam:{}, registryResult:{}", registryParam, registryResult);
-                                registrySuccess = true;
-                                break;
-                            } else {
-                                log.info(">>>>>>>>>>> xxl-job registry fail, registryParam:{}, registryResult:{}", registryParam, registryResult);
-                            }
-                        } catch (Exception e) {
-                            log.info(">>>>>>>>>>> xxl-job registry error, registryParam:{}", registryParam, e);
+                    ResponseEntity<String> registryResult = adminBizRouter.invoke(adminBiz -> {
+                        ResponseEntity<String> result = adminBiz.registry(registryParam);
+                        if (result == null || !ResponseEntity.isSuccess(result)) {
+                            log.info(">>>>>>>>>>> xxl-job registry fail, registryParam:{}, registryResult:{}", registryParam, result);
                         }
+                        return result;
+                    });
+                    boolean registrySuccess = ResponseEntity.isSuccess(registryResult);
+                    if (registrySuccess) {
+                        log.debug(">>>>>>>>>>> xxl-job registry success, registryParam:{}, registryResult:{}", registryParam, registryResult);
                     }
 
                     // 如果注册失败且未停止，则记录日志
                     if (!registrySuccess && !toStop) {
-                        log.warn(">>>>>>>>>>> xxl-job registry failed for all admin addresses, registryParam:{}", registryParam);
+                        log.warn(">>>>>>>>>>> xxl-job registry failed, registryParam:{}, registryResult:{}", registryParam, registryResult);
                     }
                 } catch (Exception e) {
                     if (!toStop) {
@@ -103,27 +98,21 @@ public class ExecutorRegistryThread implements IThread {
             // 注销执行器
             try {
                 RegistryParam registryParam = new RegistryParam(RegisterType.EXECUTOR.name(), appName, address);
-                boolean deregisterSuccess = false;
-                for (AdminBiz adminBiz : adminBizList) {
-                    try {
-                        ResponseEntity<String> registryResult = adminBiz.deregister(registryParam);
-                        if (registryResult != null && ResponseEntity.isSuccess(registryResult)) {
-                            log.info(">>>>>>>>>>> xxl-job registry-remove success, registryParam:{}, registryResult:{}", registryParam, registryResult);
-                            deregisterSuccess = true;
-                            break;
-                        } else {
-                            log.info(">>>>>>>>>>> xxl-job registry-remove fail, registryParam:{}, registryResult:{}", registryParam, registryResult);
-                        }
-                    } catch (Exception e) {
-                        if (!toStop) {
-                            log.error(">>>>>>>>>>> xxl-job registry-remove error, registryParam:{}", registryParam, e);
-                        }
+                ResponseEntity<String> registryResult = adminBizRouter.invoke(adminBiz -> {
+                    ResponseEntity<String> result = adminBiz.deregister(registryParam);
+                    if (result == null || !ResponseEntity.isSuccess(result)) {
+                        log.info(">>>>>>>>>>> xxl-job registry-remove fail, registryParam:{}, registryResult:{}", registryParam, result);
                     }
+                    return result;
+                });
+                boolean deregisterSuccess = ResponseEntity.isSuccess(registryResult);
+                if (deregisterSuccess) {
+                    log.info(">>>>>>>>>>> xxl-job registry-remove success, registryParam:{}, registryResult:{}", registryParam, registryResult);
                 }
 
                 // 如果注销失败且未停止，则记录日志
                 if (!deregisterSuccess && !toStop) {
-                    log.warn(">>>>>>>>>>> xxl-job deregistry failed for all admin addresses, registryParam:{}", registryParam);
+                    log.warn(">>>>>>>>>>> xxl-job deregistry failed, registryParam:{}, registryResult:{}", registryParam, registryResult);
                 }
             } catch (Exception e) {
                 if (!toStop) {
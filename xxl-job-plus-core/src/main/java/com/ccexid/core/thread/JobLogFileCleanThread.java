@@ -2,16 +2,27 @@ package com.ccexid.core.thread;
 
 import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.util.DateUtil;
-import com.ccexid.core.util.FileUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.DateFormatUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 /**
  * job file clean thread
+ * 按保留天数删除、按压缩天数压缩日期目录；配置了总大小上限时，从最旧的日期目录开始逐个淘汰日志（同一日志的分段、索引、压缩文件一并删除），
+ * 直到总大小不超过上限，当天的日志不淘汰。同时清理 glue-source、callback-log 目录中长期未更新的遗留文件。
+ * 删除按小批量进行，批次之间暂停，避免集中占用磁盘IO
  *
  * @author xuxueli 2017-12-29 16:23:43
  */
@@ -22,7 +33,38 @@ public class JobLogFileCleanThread implements IThread {
 
     private static final String DATE_FORMAT_PATTERN = "yyyy-MM-dd";
     private static final long ONE_DAY_MILLISECONDS = 24 * 60 * 60 * 1000L;
+    /**
+     * 配置了总大小上限时的检查间隔
+     */
+    private static final long SIZE_CHECK_INTERVAL_MINUTES = 10;
+    /**
+     * 每批删除的文件数及批次之间的暂停时间
+     */
+    private static final int DELETE_BATCH_FILES = 200;
+    private static final long DELETE_BATCH_PAUSE_MILLIS = 100;
+    /**
+     * 未配置保留天数时，glue-source、callback-log 遗留文件的保留天数
+     */
+    private static final long LEFTOVER_RETENTION_DAYS_DEFAULT = 30;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
     private long logRetentionDays;
+    private long logCompressAfterDays;
+    private long logRetentionMaxBytes;
+
+    /**
+     * 历史日期目录的大小缓存，目录名 -> {目录修改时间, 字节数}，目录内文件增删时目录修改时间变化
+     */
+    private final Map<String, long[]> daySizeCache = new HashMap<>();
+    private int deletedInBatch;
+
+    private final LongAdder sweepCount = new LongAdder();
+    private final LongAdder deletedFileCount = new LongAdder();
+    private final LongAdder deletedBytes = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    private final LongAdder compressedFileCount = new LongAdder();
+    private volatile long usedBytes = -1;
+    private volatile long lastSweepMillis;
 
     /**
      * 获取单例实例
@@ -42,12 +84,35 @@ public class JobLogFileCleanThread implements IThread {
      * @param logRetentionDays 日志保留天数，小于3时不会启动清理任务
      */
     public void start(final long logRetentionDays) {
+        start(logRetentionDays, 0);
+    }
+
+    /**
+     * 启动日志文件清理线程
+     *
+     * @param logRetentionDays     日志保留天数，小于3时不清理
+     * @param logCompressAfterDays 日志压缩天数，超过该天数的日期目录压缩保存，小于等于0时不压缩
+     */
+    public void start(final long logRetentionDays, final long logCompressAfterDays) {
+        start(logRetentionDays, logCompressAfterDays, 0);
+    }
+
+    /**
+     * 启动日志文件清理线程
+     *
+     * @param logRetentionDays     日志保留天数，小于3时不按天数清理
+     * @param logCompressAfterDays 日志压缩天数，超过该天数的日期目录压缩保存，小于等于0时不压缩
+     * @param logRetentionMaxBytes 日志目录总大小上限（字节），超出后从最旧的日志开始淘汰，小于等于0时不限制
+     */
+    public void start(final long logRetentionDays, final long logCompressAfterDays, final long logRetentionMaxBytes) {
 
         // 限制最小值，避免误删重要日志
-        if (logRetentionDays < 3) {
+        this.logRetentionDays = logRetentionDays >= 3 ? logRetentionDays : 0;
+        this.logCompressAfterDays = Math.max(logCompressAfterDays, 0);
+        this.logRetentionMaxBytes = Math.max(logRetentionMaxBytes, 0);
+        if (this.logRetentionDays == 0 && this.logCompressAfterDays == 0 && this.logRetentionMaxBytes == 0) {
             return;
         }
-        this.logRetentionDays = logRetentionDays;
         start();
 
     }
@@ -58,45 +123,10 @@ public class JobLogFileCleanThread implements IThread {
         localThread = new Thread(() -> {
             while (!toStop) {
                 try {
-                    // 清理超过保留天数的日志目录
-                    File[] childDirs = new File(JobLogFileAppender.getLogPath()).listFiles();
-                    if (childDirs != null && childDirs.length > 0) {
-
-                        // 获取今天的起始时间（00:00:00）
-                        Calendar todayCal = Calendar.getInstance();
-                        todayCal.set(Calendar.HOUR_OF_DAY, 0);
-                        todayCal.set(Calendar.MINUTE, 0);
-                        todayCal.set(Calendar.SECOND, 0);
-                        todayCal.set(Calendar.MILLISECOND, 0);
-
-                        Date todayDate = todayCal.getTime();
-
-                        for (File childFile : childDirs) {
-
-                            // 跳过非目录文件和不包含日期格式的文件夹
-                            if (!childFile.isDirectory()) {
-                                continue;
-                            }
-                            if (!childFile.getName().contains("-")) {
-                                continue;
-                            }
-
-                            // 解析文件夹名称中的日期信息
-                            Date logFileCreateDate = DateUtil.parse(childFile.getName(), DATE_FORMAT_PATTERN);
-                            if (logFileCreateDate == null) {
-                                continue;
-                            }
-
-                            // 判断是否超过保留天数，若超过则删除该目录
-                            if ((todayDate.getTime() - logFileCreateDate.getTime()) >= this.logRetentionDays * ONE_DAY_MILLISECONDS) {
-                                if (!FileUtil.deleteRecursively(childFile)) {
-                                    log.warn("Delete log file failed: {}", childFile.getAbsolutePath());
-                                }
-                            }
-
-                        }
-                    }
-
+                    sweep();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 } catch (Exception e) {
                     if (!toStop) {
                         log.error("Clean log file error", e);
@@ -105,8 +135,12 @@ public class JobLogFileCleanThread implements IThread {
                 }
 
                 try {
-                    // 每天执行一次清理操作
-                    TimeUnit.DAYS.sleep(1);
+                    // 配置了总大小上限时定期检查，否则每天执行一次清理操作
+                    if (logRetentionMaxBytes > 0) {
+                        TimeUnit.MINUTES.sleep(SIZE_CHECK_INTERVAL_MINUTES);
+                    } else {
+                        TimeUnit.DAYS.sleep(1);
+                    }
                 } catch (InterruptedException e) {
                     if (!toStop) {
                         log.error("Sleep interrupted", e);
@@ -123,6 +157,284 @@ public class JobLogFileCleanThread implements IThread {
         localThread.start();
     }
 
+    /**
+     * 执行一轮清理
+     */
+    private void sweep() throws InterruptedException {
+        long begin = System.currentTimeMillis();
+        File logRoot = new File(JobLogFileAppender.getLogPath());
+
+        // 获取今天的起始时间（00:00:00）
+        Calendar todayCal = Calendar.getInstance();
+        todayCal.set(Calendar.HOUR_OF_DAY, 0);
+        todayCal.set(Calendar.MINUTE, 0);
+        todayCal.set(Calendar.SECOND, 0);
+        todayCal.set(Calendar.MILLISECOND, 0);
+        Date todayDate = todayCal.getTime();
+
+        File glueDir = new File(JobLogFileAppender.getGlueSrcPath());
+        File callbackDir = new File(logRoot, TriggerCallbackThread.FAIL_CALLBACK_DIR_NAME);
+
+        // 日期目录，由旧到新
+        List<File> dayDirs = new ArrayList<>();
+        Map<File, Date> dayDates = new HashMap<>();
+        File[] childDirs = logRoot.listFiles();
+        if (childDirs != null) {
+            for (File childFile : childDirs) {
+                // 跳过非目录文件和不包含日期格式的文件夹
+                if (!childFile.isDirectory() || !childFile.getName().contains("-")
+                        || childFile.equals(glueDir) || childFile.equals(callbackDir)) {
+                    continue;
+                }
+                // 解析文件夹名称中的日期信息
+                Date logFileCreateDate = DateUtil.parse(childFile.getName(), DATE_FORMAT_PATTERN);
+                if (logFileCreateDate != null) {
+                    dayDirs.add(childFile);
+                    dayDates.put(childFile, logFileCreateDate);
+                }
+            }
+        }
+        dayDirs.sort(Comparator.comparing(dayDates::get));
+
+        // 按天数删除、压缩
+        List<File> keptDirs = new ArrayList<>();
+        for (File dayDir : dayDirs) {
+            long logAgeMillis = todayDate.getTime() - dayDates.get(dayDir).getTime();
+            if (this.logRetentionDays > 0 && logAgeMillis >= this.logRetentionDays * ONE_DAY_MILLISECONDS) {
+                deleteRecursively(dayDir);
+                continue;
+            }
+            keptDirs.add(dayDir);
+            if (logAgeMillis > 0) {
+                // 中断的压缩遗留的临时文件
+                deleteIdle(dayDir, ONE_DAY_MILLISECONDS, name -> name.endsWith(TEMP_FILE_SUFFIX));
+            }
+            if (this.logCompressAfterDays > 0 && logAgeMillis >= this.logCompressAfterDays * ONE_DAY_MILLISECONDS) {
+                // 超过压缩天数则压缩该目录，仍在写入的文件（跨天运行的任务）留待下次
+                int compressed = JobLogFileAppender.compressLogDir(dayDir, ONE_DAY_MILLISECONDS);
+                if (compressed > 0) {
+                    compressedFileCount.add(compressed);
+                    log.info(">>>>>>>>>>> xxl-job, compress log dir: {}, files: {}", dayDir.getAbsolutePath(), compressed);
+                }
+            }
+        }
+
+        // glue-source、callback-log 遗留文件：脚本文件执行时不存在会重新生成；失败回调WAL自行删除已确认的分段，不在此清理
+        long leftoverMillis = (this.logRetentionDays > 0 ? this.logRetentionDays : LEFTOVER_RETENTION_DAYS_DEFAULT) * ONE_DAY_MILLISECONDS;
+        deleteIdle(glueDir, leftoverMillis, name -> true);
+        deleteIdle(callbackDir, leftoverMillis, name -> !CallbackWal.isWalFile(name));
+
+        // 按总大小淘汰
+        String today = DateFormatUtils.format(todayDate, DATE_FORMAT_PATTERN);
+        long total = sizeOf(glueDir) + sizeOf(callbackDir);
+        for (File dayDir : keptDirs) {
+            total += daySize(dayDir, today);
+        }
+        if (this.logRetentionMaxBytes > 0 && total > this.logRetentionMaxBytes) {
+            for (File dayDir : keptDirs) {
+                if (total <= this.logRetentionMaxBytes || today.compareTo(dayDir.getName()) <= 0) {
+                    break;
+                }
+                total -= evict(dayDir, total - this.logRetentionMaxBytes);
+            }
+            if (total > this.logRetentionMaxBytes) {
+                log.warn(">>>>>>>>>>> xxl-job, log dir still exceeds retention max size, used:{}, max:{}", total, this.logRetentionMaxBytes);
+            }
+        }
+        daySizeCache.keySet().removeIf(name -> !new File(logRoot, name).isDirectory());
+
+        usedBytes = total;
+        lastSweepMillis = System.currentTimeMillis() - begin;
+        sweepCount.increment();
+    }
+
+    /**
+     * 从日期目录中按修改时间由旧到新淘汰日志，同一日志（文件名第一个"."之前相同）的文件一并删除
+     *
+     * @return 删除的字节数
+     */
+    private long evict(File dayDir, long excessBytes) throws InterruptedException {
+        File[] files = dayDir.listFiles(File::isFile);
+        if (files == null) {
+            return 0;
+        }
+        Map<String, List<File>> groups = new LinkedHashMap<>();
+        Map<String, Long> groupModified = new HashMap<>();
+        for (File file : files) {
+            String name = file.getName();
+            int dot = name.indexOf('.');
+            String key = dot > 0 ? name.substring(0, dot) : name;
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(file);
+            groupModified.merge(key, file.lastModified(), Math::max);
+        }
+        List<String> keys = new ArrayList<>(groups.keySet());
+        keys.sort(Comparator.comparing(groupModified::get));
+
+        long freed = 0;
+        for (String key : keys) {
+            if (freed >= excessBytes) {
+                break;
+            }
+            for (File file : groups.get(key)) {
+                long length = deleteFile(file);
+                freed += length;
+                evictedBytes.add(length);
+            }
+        }
+        String[] remaining = dayDir.list();
+        if (remaining != null && remaining.length == 0) {
+            dayDir.delete();
+        }
+        daySizeCache.remove(dayDir.getName());
+        if (freed > 0) {
+            log.info(">>>>>>>>>>> xxl-job, evict log dir: {}, bytes: {}", dayDir.getAbsolutePath(), freed);
+        }
+        return freed;
+    }
+
+    /**
+     * 日期目录大小，历史目录使用缓存
+     */
+    private long daySize(File dayDir, String today) {
+        if (today.compareTo(dayDir.getName()) <= 0) {
+            return sizeOf(dayDir);
+        }
+        long modified = dayDir.lastModified();
+        long[] cached = daySizeCache.get(dayDir.getName());
+        if (cached != null && cached[0] == modified) {
+            return cached[1];
+        }
+        long size = sizeOf(dayDir);
+        daySizeCache.put(dayDir.getName(), new long[]{modified, size});
+        return size;
+    }
+
+    private void deleteIdle(File dir, long idleMillis, Predicate<String> nameFilter) throws InterruptedException {
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        File[] files = dir.listFiles(file -> file.isFile() && file.lastModified() < idleBefore && nameFilter.test(file.getName()));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            deleteFile(file);
+        }
+    }
+
+    private void deleteRecursively(File file) throws InterruptedException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (file.isDirectory()) {
+            if (!file.delete()) {
+                log.warn("Delete log file failed: {}", file.getAbsolutePath());
+            }
+            daySizeCache.remove(file.getName());
+        } else {
+            deleteFile(file);
+        }
+    }
+
+    /**
+     * 删除单个文件，每删除一批暂停一次
+     *
+     * @return 删除的字节数
+     */
+    private long deleteFile(File file) throws InterruptedException {
+        long length = file.length();
+        if (!file.delete()) {
+            log.warn("Delete log file failed: {}", file.getAbsolutePath());
+            return 0;
+        }
+        deletedFileCount.increment();
+        deletedBytes.add(length);
+        if (++deletedInBatch >= DELETE_BATCH_FILES) {
+            deletedInBatch = 0;
+            if (toStop) {
+                throw new InterruptedException("JobLogFileCleanThread stopped");
+            }
+            TimeUnit.MILLISECONDS.sleep(DELETE_BATCH_PAUSE_MILLIS);
+        }
+        return length;
+    }
+
+    private static long sizeOf(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.isFile() ? file.length() : 0;
+        }
+        long size = 0;
+        for (File child : children) {
+            size += sizeOf(child);
+        }
+        return size;
+    }
+
+    /**
+     * 累计执行的清理轮数
+     *
+     * @return 清理轮数
+     */
+    public long getSweepCount() {
+        return sweepCount.sum();
+    }
+
+    /**
+     * 最近一轮清理的耗时（毫秒）
+     *
+     * @return 耗时
+     */
+    public long getLastSweepMillis() {
+        return lastSweepMillis;
+    }
+
+    /**
+     * 最近一轮清理后日志目录的总大小（字节），尚未执行时为-1
+     *
+     * @return 总大小
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * 累计删除的文件数
+     *
+     * @return 删除文件数
+     */
+    public long getDeletedFileCount() {
+        return deletedFileCount.sum();
+    }
+
+    /**
+     * 累计删除的字节数
+     *
+     * @return 删除字节数
+     */
+    public long getDeletedBytes() {
+        return deletedBytes.sum();
+    }
+
+    /**
+     * 累计因超出总大小上限而淘汰的字节数
+     *
+     * @return 淘汰字节数
+     */
+    public long getEvictedBytes() {
+        return evictedBytes.sum();
+    }
+
+    /**
+     * 累计压缩的文件数
+     *
+     * @return 压缩文件数
+     */
+    public long getCompressedFileCount() {
+        return compressedFileCount.sum();
+    }
+
     /**
      * 停止当前线程运行
      * 中断线程并等待其结束
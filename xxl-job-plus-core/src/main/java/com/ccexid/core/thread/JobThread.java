@@ -2,50 +2,121 @@ package com.ccexid.core.thread;
 
 import com.ccexid.core.context.JobPlusContext;
 import com.ccexid.core.context.JobPlusHelper;
+import com.ccexid.core.enums.ExecutorBlockStrategy;
+import com.ccexid.core.enums.IEnums;
 import com.ccexid.core.enums.ResponseCode;
 import com.ccexid.core.executor.JobExecutor;
+import com.ccexid.core.handler.AbstractBatchJobHandler;
 import com.ccexid.core.handler.AbstractJobHandler;
 import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.model.HandleCallbackParam;
 import com.ccexid.core.model.ResponseEntity;
 import com.ccexid.core.model.TriggerParam;
+import com.ccexid.core.util.ConcurrentLongHashSet;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 作业线程类，用于执行调度任务
+ * <p>
+ * 支持两种运行方式：
+ * 1、独占线程：每个作业独占一个线程（平台线程或虚拟线程），循环拉取触发队列；
+ * 2、共享线程池：触发队列作为作业的邮箱，由 {@link JobWorkerPool} 中的工作线程按需排空，同一作业的触发仍串行执行。
+ * <p>
+ * 阻塞策略为并行执行的触发不在作业线程上执行，而是在最大并行数限制下提交到 {@link JobThreadFactory#getExecutor()}，
+ * 每次触发拥有独立的上下文、日志文件与回调。
+ * <p>
+ * 作业处理器为 {@link AbstractBatchJobHandler} 时，串行执行的触发会与队列中排队的触发合并为一批执行，每个触发仍独立回调。
+ * <p>
+ * 异步作业处理器（{@link AbstractJobHandler#isAsync()}）发起执行后立即释放执行线程，结果在 CompletionStage 完成时回调；
+ * 串行执行的触发在上一次异步执行完成前不会开始，超时与终止通过取消 CompletionStage 生效。
  *
  * @author ccexid
  * @since 1.0.0
  */
 @Slf4j
-public class JobThread extends Thread {
+public class JobThread implements Runnable {
     private static final int IDLE_LIMIT = 30;
     private static final int HANDLE_MSG_MAX_LENGTH = 50000;
     private static final String HANDLE_MSG_SUFFIX = "...";
+    /**
+     * 共享线程池模式下单次调度最多处理的触发数，处理完后让出工作线程，避免单个作业长期占用
+     */
+    private static final int DRAIN_BATCH_LIMIT = 16;
+
+    /**
+     * 执行器内所有作业排队触发数上限，小于等于0表示不限制
+     */
+    private static volatile int triggerQueueTotalCapacity = 0;
+    private static final AtomicInteger TOTAL_QUEUED = new AtomicInteger(0);
+    private static final LongAdder TOTAL_REJECTED = new LongAdder();
+
+    /**
+     * 异步执行完成回调的执行器，避免在看门狗线程或业务的 I/O 线程中写日志、推送回调
+     */
+    private static final Executor ASYNC_COMPLETION_EXECUTOR = task -> {
+        try {
+            JobThreadFactory.getInstance().getExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    };
 
     private final int jobId;
     private final AbstractJobHandler handler;
     private final LinkedBlockingQueue<TriggerParam> triggerQueue;
-    private final Set<Long> triggerLogIdSet; // avoid repeat trigger for the same TRIGGER_LOG_ID
+    private final ConcurrentLongHashSet triggerLogIdSet; // avoid repeat trigger for the same TRIGGER_LOG_ID
+    private final String name;
+    private final Thread thread; // null if pooled
+    private final int concurrency;
+    private final Semaphore concurrencyPermits;
+    private final Set<Thread> concurrentThreads = new HashSet<>();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    // async executions in flight, cancelled on kill
+    private final Set<CompletableFuture<Object>> asyncExecutions = ConcurrentHashMap.newKeySet();
+    private volatile CompletableFuture<?> asyncPending; // pooled mode, serial async execution in flight
+
+    // batch handler linger
+    private final Object lingerLock = new Object();
+    private volatile boolean lingering = false;
 
     private volatile boolean toStop = false;
     private String stopReason;
 
-    private boolean running = false; // if running job
+    private volatile boolean running = false; // if running job
     private int idleTimes = 0;
 
+    // pooled mode
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private boolean initialized = false;
+    private Thread currentWorker;
+
     /**
      * 构造函数，初始化作业线程
      *
@@ -53,13 +124,99 @@ public class JobThread extends Thread {
      * @param handler 作业处理器，负责具体作业逻辑的执行
      */
     public JobThread(int jobId, AbstractJobHandler handler) {
+        this(jobId, handler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 构造函数，初始化作业线程
+     *
+     * @param jobId       作业ID，用于标识不同的作业任务
+     * @param handler     作业处理器，负责具体作业逻辑的执行
+     * @param concurrency 并行执行策略下的最大并行数
+     */
+    public JobThread(int jobId, AbstractJobHandler handler, int concurrency) {
+        this(jobId, handler, concurrency, 0);
+    }
+
+    /**
+     * 构造函数，初始化作业线程
+     *
+     * @param jobId         作业ID，用于标识不同的作业任务
+     * @param handler       作业处理器，负责具体作业逻辑的执行
+     * @param concurrency   并行执行策略下的最大并行数
+     * @param queueCapacity 触发队列容量，小于等于0表示不限制
+     */
+    public JobThread(int jobId, AbstractJobHandler handler, int concurrency, int queueCapacity) {
         this.jobId = jobId;
         this.handler = handler;
-        this.triggerQueue = new LinkedBlockingQueue<>();
-        this.triggerLogIdSet = Collections.synchronizedSet(new HashSet<>());
+        this.concurrency = Math.max(concurrency, 1);
+        this.concurrencyPermits = new Semaphore(this.concurrency);
+        this.triggerQueue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new LinkedBlockingQueue<>();
+        this.triggerLogIdSet = new ConcurrentLongHashSet();
+        this.name = "xxl-job, JobThread-" + jobId + "-" + System.currentTimeMillis();
+
+        // assign job thread, platform thread or virtual thread; none if drained by the shared worker pool
+        this.thread = JobWorkerPool.getInstance().isStarted() ? null : JobThreadFactory.getInstance().newThread(this, name);
+    }
+
+    /**
+     * 是否由共享线程池驱动
+     *
+     * @return true表示共享线程池模式
+     */
+    public boolean isPooled() {
+        return thread == null;
+    }
+
+    /**
+     * 启动作业线程
+     */
+    public void start() {
+        if (isPooled()) {
+            schedule();
+        } else {
+            thread.start();
+        }
+    }
+
+    /**
+     * 中断作业线程
+     */
+    public void interrupt() {
+        interruptConcurrentTasks();
+        cancelAsyncExecutions();
+        if (isPooled()) {
+            synchronized (this) {
+                if (currentWorker != null) {
+                    currentWorker.interrupt();
+                }
+            }
+            schedule();
+        } else {
+            thread.interrupt();
+        }
+    }
 
-        // assign job thread name
-        this.setName("xxl-job, JobThread-" + jobId + "-" + System.currentTimeMillis());
+    /**
+     * 等待作业线程结束
+     *
+     * @throws InterruptedException 等待过程中被中断
+     */
+    public void join() throws InterruptedException {
+        if (isPooled()) {
+            terminated.await();
+        } else {
+            thread.join();
+        }
+    }
+
+    /**
+     * 获取作业线程名称
+     *
+     * @return 线程名称
+     */
+    public String getName() {
+        return name;
     }
 
     /**
@@ -78,16 +235,78 @@ public class JobThread extends Thread {
      * @return 添加结果响应实体
      */
     public ResponseEntity<String> pushTriggerQueue(TriggerParam triggerParam) {
-        // 检查日志ID是否已存在，避免重复触发
-        if (triggerLogIdSet.contains(triggerParam.getLogId())) {
+        // 登记日志ID，已存在则为重复触发
+        if (!triggerLogIdSet.add(triggerParam.getLogId())) {
             log.info("Duplicate trigger request, logId:{}", triggerParam.getLogId());
             return ResponseEntity.fail();
         }
 
-        triggerLogIdSet.add(triggerParam.getLogId());
+        // 尝试将触发参数添加到队列中，超出作业或执行器的队列上限时拒绝
+        if (!offerTrigger(triggerParam)) {
+            triggerLogIdSet.remove(triggerParam.getLogId());
+            rejectedCount.increment();
+            TOTAL_REJECTED.increment();
+            log.warn(">>>>>>>>>>> xxl-job JobThread trigger queue full, jobId:{}, logId:{}, queueSize:{}, totalQueued:{}",
+                    jobId, triggerParam.getLogId(), triggerQueue.size(), TOTAL_QUEUED.get());
+            return ResponseEntity.of(ResponseCode.QUEUE_FULL.getCode(),
+                    "job trigger queue full, jobId:" + jobId + ", queueSize:" + triggerQueue.size(), null);
+        }
+        signalLinger();
+        if (isPooled()) {
+            schedule();
+        }
+        return ResponseEntity.success();
+    }
+
+    /**
+     * 触发入队，同时占用执行器级别的排队配额
+     *
+     * @param triggerParam 触发参数
+     * @return false表示队列已满
+     */
+    private boolean offerTrigger(TriggerParam triggerParam) {
+        int totalCapacity = triggerQueueTotalCapacity;
+        if (totalCapacity > 0 && TOTAL_QUEUED.incrementAndGet() > totalCapacity) {
+            TOTAL_QUEUED.decrementAndGet();
+            return false;
+        }
+        if (totalCapacity <= 0) {
+            TOTAL_QUEUED.incrementAndGet();
+        }
+        if (!triggerQueue.offer(triggerParam)) {
+            TOTAL_QUEUED.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
 
-        // 尝试将触发参数添加到队列中
-        return triggerQueue.add(triggerParam) ? ResponseEntity.success() : ResponseEntity.fail();
+    /**
+     * 触发出队，同时归还执行器级别的排队配额
+     *
+     * @return 触发参数，队列为空时返回null
+     */
+    private TriggerParam pollTrigger() {
+        TriggerParam triggerParam = triggerQueue.poll();
+        if (triggerParam != null) {
+            TOTAL_QUEUED.decrementAndGet();
+        }
+        return triggerParam;
+    }
+
+    /**
+     * 触发出队，队列为空时最多等待指定时长
+     *
+     * @param timeout 等待时长
+     * @param unit    时间单位
+     * @return 触发参数，超时返回null
+     * @throws InterruptedException 等待过程中被中断
+     */
+    private TriggerParam pollTrigger(long timeout, TimeUnit unit) throws InterruptedException {
+        TriggerParam triggerParam = triggerQueue.poll(timeout, unit);
+        if (triggerParam != null) {
+            TOTAL_QUEUED.decrementAndGet();
+        }
+        return triggerParam;
     }
 
     /**
@@ -98,10 +317,68 @@ public class JobThread extends Thread {
     public void toStop(String stopReason) {
         this.toStop = true;
         this.stopReason = stopReason;
+        signalLinger();
+        if (isPooled()) {
+            schedule();
+        }
     }
 
     public boolean isRunningOrHasQueue() {
-        return running || !triggerQueue.isEmpty();
+        return running || getConcurrentRunningCount() > 0 || !asyncExecutions.isEmpty() || !triggerQueue.isEmpty();
+    }
+
+    /**
+     * 获取并行执行中的触发数
+     *
+     * @return 并行执行中的触发数
+     */
+    public int getConcurrentRunningCount() {
+        return concurrency - concurrencyPermits.availablePermits();
+    }
+
+    /**
+     * 获取排队中的触发数
+     *
+     * @return 队列深度
+     */
+    public int getQueueSize() {
+        return triggerQueue.size();
+    }
+
+    /**
+     * 获取因队列已满被拒绝的触发数
+     *
+     * @return 拒绝次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 设置执行器内所有作业排队触发数上限
+     *
+     * @param totalCapacity 上限，小于等于0表示不限制
+     */
+    public static void setTriggerQueueTotalCapacity(int totalCapacity) {
+        triggerQueueTotalCapacity = totalCapacity;
+    }
+
+    /**
+     * 获取执行器内所有作业排队中的触发数
+     *
+     * @return 排队总数
+     */
+    public static int getTotalQueuedCount() {
+        return TOTAL_QUEUED.get();
+    }
+
+    /**
+     * 获取执行器内因队列已满被拒绝的触发总数
+     *
+     * @return 拒绝总数
+     */
+    public static long getTotalRejectedCount() {
+        return TOTAL_REJECTED.sum();
     }
 
     /**
@@ -112,153 +389,792 @@ public class JobThread extends Thread {
      */
     @Override
     public void run() {
-        try {
-            handler.init();
-        } catch (Throwable e) {
-            log.error(e.getMessage(), e);
-        }
+        initHandler();
 
         while (!toStop) {
             running = false;
-            idleTimes++;
+            // concurrent and async executions are still running while this loop polls
+            if (getConcurrentRunningCount() == 0 && asyncExecutions.isEmpty()) {
+                idleTimes++;
+            } else {
+                idleTimes = 0;
+            }
 
-            TriggerParam triggerParam = null;
+            TriggerParam triggerParam;
             try {
-                triggerParam = triggerQueue.poll(3L, TimeUnit.SECONDS);
-                if (triggerParam != null) {
-                    running = true;
-                    idleTimes = 0;
-                    triggerLogIdSet.remove(triggerParam.getLogId());
-                    String logFileName = JobLogFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
-
-                    JobPlusContext jobContext = new JobPlusContext(
-                            triggerParam.getJobId(),
-                            triggerParam.getExecutorParams(),
-                            logFileName,
-                            triggerParam.getBroadcastIndex(),
-                            triggerParam.getBroadcastTotal());
-                    JobPlusContext.setJobContext(jobContext);
-                    JobPlusHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + jobContext.getJobParam());
-
-                    if (triggerParam.getExecutorTimeout() > 0) {
-                        Thread futureThread = null;
-                        try {
-                            Callable<Boolean> task = () -> {
-                                // init job context
-                                JobPlusContext.setJobContext(jobContext);
-                                handler.execute();
-                                return true;
-                            };
-                            FutureTask<Boolean> futureTask = new FutureTask<>(task);
-                            futureThread = new Thread(futureTask);
-                            futureThread.start();
-                            Boolean tempResult = futureTask.get(triggerParam.getExecutorTimeout(), TimeUnit.SECONDS);
-                            if (Boolean.TRUE.equals(tempResult)) {
-                                JobPlusHelper.log("<br>----------- xxl-job job execute end(success) -----------<br>");
-                            } else {
-                                JobPlusHelper.log("<br>----------- xxl-job job execute end(fail) -----------<br>");
-                            }
-                        } catch (TimeoutException e) {
-                            JobPlusHelper.log("<br>----------- xxl-job job execute timeout");
-                            JobPlusHelper.log(e);
-                            JobPlusHelper.handleTimeout("job execute timeout ");
-                        } catch (InterruptedException e) {
-                            JobPlusHelper.log("<br>----------- xxl-job job execute interrupted");
-                            JobPlusHelper.log(e);
-                            JobPlusHelper.handleFail("job execute interrupted ");
-                            // 恢复中断状态
-                            Thread.currentThread().interrupt();
-                        } catch (Exception e) {
-                            JobPlusHelper.log("<br>----------- xxl-job job execute exception");
-                            JobPlusHelper.log(e);
-                            JobPlusHelper.handleFail("job execute exception: " + e.getMessage());
-                        } finally {
-                            if (futureThread != null && futureThread.isAlive()) {
-                                futureThread.interrupt();
-                            }
-                        }
-                    } else {
-                        try {
-                            handler.execute();
-                        } catch (Exception e) {
-                            JobPlusHelper.log("<br>----------- xxl-job job execute exception");
-                            JobPlusHelper.log(e);
-                            JobPlusHelper.handleFail("job execute exception: " + e.getMessage());
-                        }
-                    }
+                triggerParam = pollTrigger(3L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                if (!toStop) {
+                    log.warn(">>>>>>>>>>> xxl-job JobThread interrupted while waiting trigger, jobId:{}", jobId);
+                }
+                continue;
+            }
 
-                    if (JobPlusContext.getInstance().getHandleCode() <= 0) {
-                        JobPlusHelper.handleFail("job handle result lost.");
-                    } else {
-                        String tempHandleMsg = JobPlusContext.getInstance().getHandleMsg();
-                        if (tempHandleMsg != null && tempHandleMsg.length() > HANDLE_MSG_MAX_LENGTH) {
-                            tempHandleMsg = tempHandleMsg.substring(0, HANDLE_MSG_MAX_LENGTH).concat(HANDLE_MSG_SUFFIX);
-                        }
-                        JobPlusContext.getInstance().setHandleMsg(tempHandleMsg);
+            if (triggerParam != null) {
+                running = true;
+                idleTimes = 0;
+                if (isConcurrent(triggerParam)) {
+                    try {
+                        concurrencyPermits.acquire();
+                    } catch (InterruptedException e) {
+                        // is killed while waiting for a free slot
+                        pushKilledCallback(triggerParam);
+                        continue;
+                    }
+                    submitConcurrent(triggerParam);
+                } else {
+                    awaitAsync(processSerial(triggerParam));
+                }
+            } else {
+                if (idleTimes > IDLE_LIMIT) {
+                    // avoid concurrent trigger causes jobId-lost, and keep in-flight executions alive
+                    if (!isRunningOrHasQueue()) {
+                        JobExecutor.removeJobThread(jobId, "executor idle times over limit.");
                     }
+                }
+            }
+        }
+
+        terminate();
+    }
+
+    /**
+     * 将作业邮箱提交到共享线程池，已提交且未执行时不重复提交
+     */
+    private void schedule() {
+        if (terminated.getCount() == 0 || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            JobWorkerPool.getInstance().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            log.error(">>>>>>>>>>> xxl-job JobThread schedule rejected, jobId:{}", jobId, e);
+        }
+    }
 
-                    JobPlusHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
-                            + JobPlusContext.getInstance().getHandleCode()
-                            + ", handleMsg = "
-                            + JobPlusContext.getInstance().getHandleMsg()
-                    );
+    /**
+     * 共享线程池模式下排空作业邮箱
+     * 同一时刻最多只有一个工作线程处理同一作业，保证串行语义
+     */
+    private void drain() {
+        boolean blocked = false;
+        synchronized (this) {
+            currentWorker = Thread.currentThread();
+        }
+        try {
+            if (!initialized) {
+                initialized = true;
+                initHandler();
+            }
 
+            int processed = 0;
+            while (!toStop && asyncPending == null && processed < DRAIN_BATCH_LIMIT) {
+                TriggerParam triggerParam = triggerQueue.peek();
+                if (triggerParam == null) {
+                    break;
+                }
+                if (isConcurrent(triggerParam)) {
+                    // no free slot, resumed when a concurrent execution finishes
+                    if (!concurrencyPermits.tryAcquire()) {
+                        blocked = true;
+                        break;
+                    }
+                    pollTrigger();
+                    submitConcurrent(triggerParam);
                 } else {
-                    if (idleTimes > IDLE_LIMIT) {
-                        if (triggerQueue.isEmpty()) {    // avoid concurrent trigger causes jobId-lost
-                            JobExecutor.removeJobThread(jobId, "executor idle times over limit.");
-                        }
+                    pollTrigger();
+                    running = true;
+                    CompletableFuture<?> pending = processSerial(triggerParam);
+                    running = false;
+                    if (pending != null) {
+                        // serial async execution in flight, the mailbox is resumed when it completes
+                        asyncPending = pending;
+                        pending.whenComplete((value, e) -> {
+                            asyncPending = null;
+                            schedule();
+                        });
                     }
                 }
-            } catch (Throwable e) {
-                if (toStop) {
-                    JobPlusHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+                processed++;
+            }
+
+            if (toStop) {
+                terminate();
+            }
+        } finally {
+            running = false;
+            JobPlusContext.setJobContext(null);
+            synchronized (this) {
+                currentWorker = null;
+                // clear interrupt status, the worker thread will be reused by other jobs
+                Thread.interrupted();
+            }
+            scheduled.set(false);
+            if (terminated.getCount() > 0
+                    && (toStop || (asyncPending == null && !triggerQueue.isEmpty() && (!blocked || concurrencyPermits.availablePermits() > 0)))) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * 判断触发是否使用并行执行策略
+     *
+     * @param triggerParam 触发参数
+     * @return true表示并行执行
+     */
+    private boolean isConcurrent(TriggerParam triggerParam) {
+        return ExecutorBlockStrategy.CONCURRENT_EXECUTION == IEnums.match(ExecutorBlockStrategy.class, triggerParam.getExecutorBlockStrategy(), null);
+    }
+
+    /**
+     * 提交并行执行的触发，调用前需已获取并行许可
+     *
+     * @param triggerParam 触发参数
+     */
+    private void submitConcurrent(TriggerParam triggerParam) {
+        try {
+            JobThreadFactory.getInstance().getExecutor().execute(() -> runConcurrent(triggerParam));
+        } catch (RejectedExecutionException e) {
+            log.warn(">>>>>>>>>>> xxl-job concurrent execution rejected, run in job thread, jobId:{}, logId:{}", jobId, triggerParam.getLogId());
+            concurrencyPermits.release();
+            processTrigger(triggerParam);
+        }
+    }
+
+    /**
+     * 在共享执行器线程中执行并行触发
+     *
+     * @param triggerParam 触发参数
+     */
+    private void runConcurrent(TriggerParam triggerParam) {
+        synchronized (concurrentThreads) {
+            concurrentThreads.add(Thread.currentThread());
+        }
+        CompletableFuture<?> pending = null;
+        try {
+            pending = processTrigger(triggerParam);
+        } finally {
+            synchronized (concurrentThreads) {
+                concurrentThreads.remove(Thread.currentThread());
+                // clear interrupt status, the executor thread may be reused
+                Thread.interrupted();
+            }
+            JobPlusContext.setJobContext(null);
+            if (pending != null) {
+                // async execution keeps its permit until completion, the executor thread is released now
+                pending.whenComplete((value, e) -> releaseConcurrent());
+            } else {
+                releaseConcurrent();
+            }
+        }
+    }
+
+    /**
+     * 并行执行结束，归还并行许可
+     */
+    private void releaseConcurrent() {
+        concurrencyPermits.release();
+        if (isPooled()) {
+            schedule();
+        }
+    }
+
+    /**
+     * 中断所有并行执行中的触发
+     */
+    private void interruptConcurrentTasks() {
+        synchronized (concurrentThreads) {
+            for (Thread concurrentThread : concurrentThreads) {
+                concurrentThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 取消所有执行中的异步触发
+     */
+    private void cancelAsyncExecutions() {
+        for (CompletableFuture<Object> asyncExecution : asyncExecutions) {
+            asyncExecution.cancel(true);
+        }
+    }
+
+    /**
+     * 等待独占线程模式下串行异步执行完成，期间被终止时取消执行
+     *
+     * @param pending 异步执行，为null表示已同步完成
+     */
+    private void awaitAsync(CompletableFuture<?> pending) {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            cancelAsyncExecutions();
+            pending.handle((value, ex) -> null).join();
+            // 恢复中断状态
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // result already handled by the completion callback
+        }
+    }
+
+    /**
+     * 停止时等待共享线程池模式下的串行异步执行结束，确保其回调已推送
+     */
+    private void awaitAsyncPending() {
+        CompletableFuture<?> pending = asyncPending;
+        if (pending == null) {
+            return;
+        }
+        // clear interrupt status of the stopping thread before waiting
+        boolean interrupted = Thread.interrupted();
+        try {
+            pending.handle((value, e) -> null).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn(">>>>>>>>>>> xxl-job JobThread stop, async execution still running, jobId:{}", jobId);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 停止时等待并行执行中的触发结束，确保其回调已推送
+     */
+    private void awaitConcurrentTasks() {
+        if (getConcurrentRunningCount() == 0) {
+            return;
+        }
+        interruptConcurrentTasks();
+        // clear interrupt status of the stopping thread before waiting
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (concurrencyPermits.tryAcquire(concurrency, 30, TimeUnit.SECONDS)) {
+                concurrencyPermits.release(concurrency);
+            } else {
+                log.warn(">>>>>>>>>>> xxl-job JobThread stop, concurrent executions still running, jobId:{}, running:{}",
+                        jobId, getConcurrentRunningCount());
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 推送未执行即被终止的回调
+     *
+     * @param triggerParam 触发参数
+     */
+    private void pushKilledCallback(TriggerParam triggerParam) {
+        triggerLogIdSet.remove(triggerParam.getLogId());
+        TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+                triggerParam.getLogId(),
+                triggerParam.getLogDateTime(),
+                ResponseCode.FAIL.getCode(),
+                stopReason + " [job not executed, in the job queue, killed.]")
+        );
+    }
+
+    /**
+     * 初始化作业处理器
+     */
+    private void initHandler() {
+        try {
+            handler.init();
+        } catch (Throwable e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行在作业线程上串行执行的触发，批量作业处理器合并排队中的触发后批量执行
+     *
+     * @param triggerParam 触发参数
+     * @return 执行中的异步触发，已完成时返回null
+     */
+    private CompletableFuture<?> processSerial(TriggerParam triggerParam) {
+        if (handler instanceof AbstractBatchJobHandler) {
+            AbstractBatchJobHandler batchHandler = (AbstractBatchJobHandler) handler;
+            processBatch(batchHandler, collectBatch(batchHandler, triggerParam));
+            return null;
+        }
+        return processTrigger(triggerParam);
+    }
+
+    /**
+     * 执行单次触发，并推送回调结果
+     * 异步作业处理器发起执行后立即返回，由完成回调推送结果
+     *
+     * @param triggerParam 触发参数
+     * @return 执行中的异步触发，已完成时返回null
+     */
+    private CompletableFuture<?> processTrigger(TriggerParam triggerParam) {
+        triggerLogIdSet.remove(triggerParam.getLogId());
+        CompletableFuture<?> pending = null;
+        // timeout result already reported by the watchdog at the deadline
+        boolean timeoutReported = false;
+        try {
+            JobPlusContext jobContext = beginTrigger(triggerParam);
+
+            if (handler.isAsync()) {
+                pending = startAsync(triggerParam, jobContext);
+            } else if (triggerParam.getExecutorTimeout() > 0) {
+                // 在当前线程内执行，由共享的超时看门狗在到期时中断，并在到期时上报超时结果
+                JobTimeoutWatchdog.Watch watch = JobTimeoutWatchdog.getInstance()
+                        .watch(triggerParam.getExecutorTimeout(), TimeUnit.SECONDS,
+                                () -> reportTimeout(triggerParam, jobContext, null));
+                Exception executeException = null;
+                try {
+                    handler.execute();
+                } catch (Exception e) {
+                    executeException = e;
+                }
+                if (!watch.done()) {
+                    timeoutReported = true;
+                    logReturnAfterTimeout(executeException);
+                } else if (executeException instanceof InterruptedException) {
+                    JobPlusHelper.log("<br>----------- xxl-job job execute interrupted");
+                    JobPlusHelper.log(executeException);
+                    JobPlusHelper.handleFail("job execute interrupted ");
+                    // 恢复中断状态
+                    Thread.currentThread().interrupt();
+                } else if (executeException != null) {
+                    JobPlusHelper.log("<br>----------- xxl-job job execute exception");
+                    JobPlusHelper.log(executeException);
+                    JobPlusHelper.handleFail("job execute exception: " + executeException.getMessage());
+                } else {
+                    JobPlusHelper.log("<br>----------- xxl-job job execute end(success) -----------<br>");
+                }
+            } else {
+                try {
+                    handler.execute();
+                } catch (Exception e) {
+                    JobPlusHelper.log("<br>----------- xxl-job job execute exception");
+                    JobPlusHelper.log(e);
+                    JobPlusHelper.handleFail("job execute exception: " + e.getMessage());
+                }
+            }
+
+            if (pending == null && !timeoutReported) {
+                finishTrigger();
+            }
+        } catch (Throwable e) {
+            if (!timeoutReported) {
+                handleTriggerError(e);
+            } else {
+                log.error(e.getMessage(), e);
+            }
+        } finally {
+            if (pending == null && !timeoutReported) {
+                pushCallback(triggerParam);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 上报超时结果，在看门狗线程中于截止时间执行，此时处理器可能仍在执行
+     * 超时只能通过中断通知处理器，处理器返回后不再重复回调
+     *
+     * @param triggerParam 触发参数
+     * @param jobContext   触发上下文
+     * @param batchInfo    批量执行信息，非批量时为null
+     */
+    private void reportTimeout(TriggerParam triggerParam, JobPlusContext jobContext, String batchInfo) {
+        JobPlusContext.setJobContext(jobContext);
+        try {
+            if (batchInfo != null) {
+                JobPlusHelper.log(batchInfo);
+            }
+            JobPlusHelper.log("<br>----------- xxl-job job execute timeout");
+            JobPlusHelper.log(new TimeoutException("job execute timeout"));
+            JobPlusHelper.handleTimeout("job execute timeout ");
+            finishTrigger();
+        } catch (Throwable e) {
+            handleTriggerError(e);
+        } finally {
+            pushCallback(triggerParam);
+            JobPlusContext.setJobContext(null);
+        }
+    }
+
+    /**
+     * 记录处理器在超时后返回，超时结果已在截止时间上报
+     *
+     * @param executeException 处理器抛出的异常，正常返回时为null
+     */
+    private void logReturnAfterTimeout(Throwable executeException) {
+        JobPlusHelper.log("<br>----------- xxl-job job execute end(after timeout) -----------");
+        if (executeException != null) {
+            JobPlusHelper.log(executeException);
+        }
+    }
+
+    /**
+     * 发起异步执行，注册超时监控与完成回调
+     *
+     * @param triggerParam 触发参数
+     * @param jobContext   触发上下文
+     * @return 异步执行（完成回调执行后完成），已同步完成时返回null
+     */
+    private CompletableFuture<?> startAsync(TriggerParam triggerParam, JobPlusContext jobContext) {
+        CompletionStage<?> stage;
+        try {
+            stage = handler.executeAsync();
+        } catch (Exception e) {
+            JobPlusHelper.log("<br>----------- xxl-job job execute exception");
+            JobPlusHelper.log(e);
+            JobPlusHelper.handleFail("job execute exception: " + e.getMessage());
+            return null;
+        }
+        if (stage == null) {
+            return null;
+        }
+
+        CompletableFuture<Object> execution = new CompletableFuture<>();
+        stage.whenComplete((value, e) -> {
+            if (e != null) {
+                execution.completeExceptionally(e);
+            } else {
+                execution.complete(value);
+            }
+        });
+        JobTimeoutWatchdog.Watch watch = triggerParam.getExecutorTimeout() > 0
+                ? JobTimeoutWatchdog.getInstance().schedule(triggerParam.getExecutorTimeout(), TimeUnit.SECONDS,
+                        () -> execution.completeExceptionally(new TimeoutException("job execute timeout")))
+                : null;
+
+        asyncExecutions.add(execution);
+        return execution.whenCompleteAsync((value, e) -> {
+            asyncExecutions.remove(execution);
+            if (e != null) {
+                // timeout or kill, propagate the cancellation to the job's own future
+                try {
+                    stage.toCompletableFuture().cancel(true);
+                } catch (UnsupportedOperationException ignore) {
+                    // stage not convertible, nothing to cancel
+                }
+            }
+            completeAsync(triggerParam, jobContext, value, e, watch);
+        }, ASYNC_COMPLETION_EXECUTOR);
+    }
+
+    /**
+     * 异步执行完成，填充执行结果并推送回调
+     *
+     * @param triggerParam 触发参数
+     * @param jobContext   触发上下文
+     * @param value        执行结果
+     * @param error        执行异常
+     * @param watch        超时监控，未设置超时时为null
+     */
+    private void completeAsync(TriggerParam triggerParam, JobPlusContext jobContext, Object value, Throwable error, JobTimeoutWatchdog.Watch watch) {
+        // runs on a pooled completion thread, restore its context afterwards
+        JobPlusContext previousContext = JobPlusContext.getInstance();
+        JobPlusContext.setJobContext(jobContext);
+        try {
+            boolean timeout = watch != null && !watch.done();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (timeout) {
+                JobPlusHelper.log("<br>----------- xxl-job job execute timeout");
+                JobPlusHelper.log(cause != null ? cause : new TimeoutException("job execute timeout"));
+                JobPlusHelper.handleTimeout("job execute timeout ");
+            } else if (cause instanceof CancellationException) {
+                JobPlusHelper.log("<br>----------- xxl-job job execute cancelled");
+                JobPlusHelper.handleFail("job execute cancelled ");
+            } else if (cause != null) {
+                JobPlusHelper.log("<br>----------- xxl-job job execute exception");
+                JobPlusHelper.log(cause);
+                JobPlusHelper.handleFail("job execute exception: " + cause.getMessage());
+            } else {
+                if (value instanceof ResponseEntity) {
+                    ResponseEntity<?> result = (ResponseEntity<?>) value;
+                    JobPlusHelper.handleResult(result.getCode(), result.getMsg());
+                } else if (value != null) {
+                    jobContext.setHandleMsg(String.valueOf(value));
                 }
+                JobPlusHelper.log("<br>----------- xxl-job job execute end(success) -----------<br>");
+            }
+            finishTrigger();
+        } catch (Throwable e) {
+            handleTriggerError(e);
+        } finally {
+            pushCallback(triggerParam);
+            JobPlusContext.setJobContext(previousContext);
+        }
+    }
 
-                StringWriter stringWriter = new StringWriter();
-                e.printStackTrace(new PrintWriter(stringWriter));
-                String errorMsg = stringWriter.toString();
+    /**
+     * 从触发队列中凑批，遇到并行执行策略的触发、凑满一批或等待超时即停止
+     *
+     * @param batchHandler 批量作业处理器
+     * @param first        本批第一个触发
+     * @return 本批触发
+     */
+    private List<TriggerParam> collectBatch(AbstractBatchJobHandler batchHandler, TriggerParam first) {
+        int batchSize = Math.max(batchHandler.getBatchSize(), 1);
+        List<TriggerParam> batch = new ArrayList<>(Math.min(batchSize, 64));
+        batch.add(first);
 
-                JobPlusHelper.handleFail(errorMsg);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(batchHandler.getBatchLingerMillis(), 0L));
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize && !toStop) {
+            // the job thread (or the single draining worker) is the only consumer, peek then poll is safe
+            TriggerParam next = triggerQueue.peek();
+            if (next != null) {
+                if (isConcurrent(next)) {
+                    break;
+                }
+                pollTrigger();
+                batch.add(next);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !awaitTrigger(remaining)) {
+                break;
+            }
+        }
+        return batch;
+    }
 
-                JobPlusHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
+    /**
+     * 凑批时等待新的触发入队
+     *
+     * @param nanos 最长等待时长（纳秒）
+     * @return true表示有新的触发，false表示超时、停止或被中断
+     */
+    private boolean awaitTrigger(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        synchronized (lingerLock) {
+            lingering = true;
+            try {
+                while (triggerQueue.isEmpty()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (toStop || remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lingerLock, remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             } finally {
-                if (triggerParam != null) {
-                    // callback handler info
-                    if (!toStop) {
-                        // common
-                        TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-                                triggerParam.getLogId(),
-                                triggerParam.getLogDateTime(),
-                                JobPlusContext.getInstance().getHandleCode(),
-                                JobPlusContext.getInstance().getHandleMsg())
-                        );
-                    } else {
-                        // is killed
-                        TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-                                triggerParam.getLogId(),
-                                triggerParam.getLogDateTime(),
-                                ResponseCode.FAIL.getCode(),
-                                stopReason + " [job running, killed]")
-                        );
+                lingering = false;
+            }
+        }
+    }
+
+    /**
+     * 唤醒凑批等待中的作业线程
+     */
+    private void signalLinger() {
+        if (lingering) {
+            synchronized (lingerLock) {
+                lingerLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 批量执行触发，每个触发独立记录执行日志并推送回调结果
+     *
+     * @param batchHandler 批量作业处理器
+     * @param batch        本批触发
+     */
+    private void processBatch(AbstractBatchJobHandler batchHandler, List<TriggerParam> batch) {
+        if (toStop) {
+            // killed while collecting the batch, nothing executed yet
+            for (TriggerParam triggerParam : batch) {
+                pushKilledCallback(triggerParam);
+            }
+            return;
+        }
+
+        List<JobPlusContext> contexts = new ArrayList<>(batch.size());
+        for (TriggerParam triggerParam : batch) {
+            triggerLogIdSet.remove(triggerParam.getLogId());
+            contexts.add(beginTrigger(triggerParam));
+        }
+        JobPlusContext.setJobContext(null);
+
+        int executorTimeout = batch.get(0).getExecutorTimeout();
+        JobTimeoutWatchdog.Watch watch = executorTimeout > 0
+                ? JobTimeoutWatchdog.getInstance().watch(executorTimeout, TimeUnit.SECONDS, () -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        reportTimeout(batch.get(i), contexts.get(i), batchInfo(batch.size(), i));
                     }
+                })
+                : null;
+        Throwable executeException = null;
+        try {
+            batchHandler.executeBatch(Collections.unmodifiableList(contexts));
+        } catch (Throwable e) {
+            executeException = e;
+        }
+        boolean timeout = watch != null && !watch.done();
+
+        if (timeout) {
+            // results already reported by the watchdog at the deadline
+            for (JobPlusContext jobContext : contexts) {
+                JobPlusContext.setJobContext(jobContext);
+                logReturnAfterTimeout(executeException);
+            }
+            JobPlusContext.setJobContext(null);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            TriggerParam triggerParam = batch.get(i);
+            JobPlusContext.setJobContext(contexts.get(i));
+            try {
+                JobPlusHelper.log(batchInfo(batch.size(), i));
+                if (executeException != null) {
+                    JobPlusHelper.log("<br>----------- xxl-job job execute exception");
+                    JobPlusHelper.log(executeException);
+                    JobPlusHelper.handleFail("job execute exception: " + executeException.getMessage());
                 }
+                finishTrigger();
+            } catch (Throwable e) {
+                handleTriggerError(e);
+            } finally {
+                pushCallback(triggerParam);
+            }
+        }
+
+        if (executeException instanceof InterruptedException) {
+            // 恢复中断状态
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String batchInfo(int size, int index) {
+        return "<br>----------- xxl-job job execute in batch, size:" + size + ", index:" + index;
+    }
+
+    /**
+     * 创建触发上下文并记录开始日志
+     *
+     * @param triggerParam 触发参数
+     * @return 触发上下文，已绑定到当前线程
+     */
+    private JobPlusContext beginTrigger(TriggerParam triggerParam) {
+        String logFileName = JobLogFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
+
+        JobPlusContext jobContext = new JobPlusContext(
+                triggerParam.getJobId(),
+                triggerParam.getExecutorParams(),
+                logFileName,
+                triggerParam.getBroadcastIndex(),
+                triggerParam.getBroadcastTotal());
+        JobPlusContext.setJobContext(jobContext);
+        JobLogFileAppender.beginLog(triggerParam.getJobId(), logFileName);
+        JobPlusHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + jobContext.getJobParam());
+        return jobContext;
+    }
+
+    /**
+     * 校验当前触发的执行结果并记录结束日志
+     */
+    private void finishTrigger() {
+        if (JobPlusContext.getInstance().getHandleCode() <= 0) {
+            JobPlusHelper.handleFail("job handle result lost.");
+        } else {
+            String tempHandleMsg = JobPlusContext.getInstance().getHandleMsg();
+            if (tempHandleMsg != null && tempHandleMsg.length() > HANDLE_MSG_MAX_LENGTH) {
+                tempHandleMsg = tempHandleMsg.substring(0, HANDLE_MSG_MAX_LENGTH).concat(HANDLE_MSG_SUFFIX);
             }
+            JobPlusContext.getInstance().setHandleMsg(tempHandleMsg);
         }
 
-        while (triggerQueue != null && !triggerQueue.isEmpty()) {
-            TriggerParam triggerParam = triggerQueue.poll();
+        JobPlusHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
+                + JobPlusContext.getInstance().getHandleCode()
+                + ", handleMsg = "
+                + JobPlusContext.getInstance().getHandleMsg()
+        );
+    }
+
+    /**
+     * 记录触发执行过程中的未知异常
+     *
+     * @param e 异常
+     */
+    private void handleTriggerError(Throwable e) {
+        if (toStop) {
+            JobPlusHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+        }
+
+        StringWriter stringWriter = new StringWriter();
+        e.printStackTrace(new PrintWriter(stringWriter));
+        String errorMsg = stringWriter.toString();
+
+        JobPlusHelper.handleFail(errorMsg);
+
+        JobPlusHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
+    }
+
+    /**
+     * 推送当前触发的回调结果
+     *
+     * @param triggerParam 触发参数
+     */
+    private void pushCallback(TriggerParam triggerParam) {
+        // flush job log before callback, so that log reads after the callback are complete
+        JobPlusContext jobContext = JobPlusContext.getInstance();
+        if (jobContext != null) {
+            JobLogFileAppender.endLog(jobContext.getJobLogFileName());
+        }
+        // callback handler info
+        if (!toStop) {
+            // common
+            TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+                    triggerParam.getLogId(),
+                    triggerParam.getLogDateTime(),
+                    JobPlusContext.getInstance().getHandleCode(),
+                    JobPlusContext.getInstance().getHandleMsg())
+            );
+        } else {
+            // is killed
+            TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+                    triggerParam.getLogId(),
+                    triggerParam.getLogDateTime(),
+                    ResponseCode.FAIL.getCode(),
+                    stopReason + " [job running, killed]")
+            );
+        }
+    }
+
+    /**
+     * 停止后回调队列中未执行的触发，并销毁作业处理器
+     */
+    private void terminate() {
+        if (terminated.getCount() == 0) {
+            return;
+        }
+
+        while (!triggerQueue.isEmpty()) {
+            TriggerParam triggerParam = pollTrigger();
             if (triggerParam != null) {
                 // is killed
-                TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-                        triggerParam.getLogId(),
-                        triggerParam.getLogDateTime(),
-                        ResponseCode.FAIL.getCode(),
-                        stopReason + " [job not executed, in the job queue, killed.]")
-                );
+                pushKilledCallback(triggerParam);
             }
         }
 
+        // cancel async executions, their callbacks are pushed on completion
+        cancelAsyncExecutions();
+        awaitAsyncPending();
+        // wait for concurrent executions to push their callbacks
+        awaitConcurrentTasks();
+
         // 线程结束时清理资源
         try {
             handler.destroy();
@@ -266,7 +1182,7 @@ public class JobThread extends Thread {
             log.error(e.getMessage(), e);
         }
 
-        log.info(">>>>>>>>>>> xxl-job JobThread stopped, hashCode:{}", Thread.currentThread());
+        terminated.countDown();
+        log.info(">>>>>>>>>>> xxl-job JobThread stopped, name:{}, thread:{}", name, Thread.currentThread());
     }
 }
-
@@ -0,0 +1,181 @@
+package com.ccexid.core.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务线程工厂
+ * 负责创建任务线程，开启虚拟线程模式且运行环境支持（JDK 21+）时创建虚拟线程，否则回退为平台线程
+ * <p>
+ * 项目以 JDK 8 为编译目标，虚拟线程相关 API 通过 MethodHandle 动态绑定
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public class JobThreadFactory implements ThreadFactory {
+
+    private static final JobThreadFactory INSTANCE = new JobThreadFactory();
+
+    public static JobThreadFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Thread.ofVirtual()
+     */
+    private static final MethodHandle OF_VIRTUAL;
+    /**
+     * Thread.Builder.OfVirtual#name(String)
+     */
+    private static final MethodHandle BUILDER_NAME;
+    /**
+     * Thread.Builder#unstarted(Runnable)
+     */
+    private static final MethodHandle BUILDER_UNSTARTED;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle builderName = null;
+        MethodHandle builderUnstarted = null;
+        try {
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            builderName = lookup.findVirtual(ofVirtualClass, "name", MethodType.methodType(ofVirtualClass, String.class));
+            builderUnstarted = lookup.findVirtual(ofVirtualClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+
+            // 预览版本（JDK 19/20）未开启 --enable-preview 时调用会抛出异常，此处提前探测
+            Object builder = ofVirtual.invoke();
+            Thread probe = (Thread) builderUnstarted.invoke(builder, (Runnable) () -> {
+            });
+            if (probe == null) {
+                throw new IllegalStateException("virtual thread probe fail.");
+            }
+        } catch (Throwable e) {
+            ofVirtual = null;
+            builderName = null;
+            builderUnstarted = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
+    private final AtomicInteger threadIndex = new AtomicInteger(0);
+    private volatile boolean virtualThreadEnabled = false;
+    private volatile ExecutorService executor;
+
+    /**
+     * 初始化线程工厂
+     *
+     * @param virtualThreadEnabled 是否启用虚拟线程，运行环境不支持时忽略该配置
+     */
+    public void init(boolean virtualThreadEnabled) {
+        if (virtualThreadEnabled && !isVirtualThreadSupported()) {
+            log.warn(">>>>>>>>>>> xxl-job, virtual thread is not supported by current jvm({}), fallback to platform thread.",
+                    System.getProperty("java.version"));
+        }
+        this.virtualThreadEnabled = virtualThreadEnabled && isVirtualThreadSupported();
+        log.info(">>>>>>>>>>> xxl-job, job thread factory init, virtualThread:{}", this.virtualThreadEnabled);
+    }
+
+    /**
+     * 销毁线程工厂，关闭共享执行器
+     */
+    public void destroy() {
+        ExecutorService executorService = executor;
+        if (executorService == null) {
+            return;
+        }
+        executor = null;
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取共享执行器
+     * 用于并行执行策略等需要额外线程的场景：虚拟线程模式下每个任务一个虚拟线程，平台线程模式下复用空闲线程
+     *
+     * @return 共享执行器
+     */
+    public ExecutorService getExecutor() {
+        ExecutorService executorService = executor;
+        if (executorService == null) {
+            synchronized (this) {
+                executorService = executor;
+                if (executorService == null) {
+                    long keepAliveSeconds = virtualThreadEnabled ? 0L : 60L;
+                    executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                            keepAliveSeconds, TimeUnit.SECONDS,
+                            new SynchronousQueue<>(),
+                            runnable -> {
+                                Thread thread = newThread(runnable);
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    executor = executorService;
+                }
+            }
+        }
+        return executorService;
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程
+     *
+     * @return true表示支持
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 是否正在使用虚拟线程
+     *
+     * @return true表示新建线程为虚拟线程
+     */
+    public boolean isVirtualThreadEnabled() {
+        return virtualThreadEnabled;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        return newThread(runnable, "xxl-job, JobThreadFactory-" + threadIndex.incrementAndGet());
+    }
+
+    /**
+     * 创建未启动的线程
+     *
+     * @param runnable 线程执行体
+     * @param name     线程名称
+     * @return 虚拟线程或平台线程
+     */
+    public Thread newThread(Runnable runnable, String name) {
+        if (virtualThreadEnabled) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(), name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+            } catch (Throwable e) {
+                log.error(">>>>>>>>>>> xxl-job, create virtual thread error, fallback to platform thread.", e);
+            }
+        }
+        return new Thread(runnable, name);
+    }
+}
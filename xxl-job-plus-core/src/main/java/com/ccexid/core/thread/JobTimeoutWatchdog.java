@@ -0,0 +1,226 @@
+package com.ccexid.core.thread;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务超时看门狗
+ * 使用一个共享的时间轮跟踪所有限时触发的截止时间，超时后中断执行线程，限时触发不再额外占用线程
+ * <p>
+ * 超时只能通过中断通知执行线程：不响应中断的处理器（阻塞的Socket读写、忙循环等）会继续占用执行线程直到自行返回，
+ * 超时结果由超时任务在到期时上报，不等待处理器返回
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public class JobTimeoutWatchdog implements IThread {
+
+    private static final JobTimeoutWatchdog INSTANCE = new JobTimeoutWatchdog();
+
+    public static JobTimeoutWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 时间轮刻度（毫秒），任务超时以秒为单位配置，100ms精度足够
+     */
+    private static final long TICK_DURATION_MS = 100L;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private volatile HashedWheelTimer timer;
+
+    private final LongAdder watchedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder firedCount = new LongAdder();
+
+    @Override
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        HashedWheelTimer wheelTimer = new HashedWheelTimer(runnable -> {
+            Thread thread = new Thread(runnable, "xxl-job, executor JobTimeoutWatchdog");
+            thread.setDaemon(true);
+            return thread;
+        }, TICK_DURATION_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+        wheelTimer.start();
+        timer = wheelTimer;
+    }
+
+    @Override
+    public synchronized void toStop() {
+        if (timer == null) {
+            return;
+        }
+        timer.stop();
+        timer = null;
+        log.info(">>>>>>>>>>> xxl-job, executor JobTimeoutWatchdog destroy, watched:{}, fired:{}", getWatchedCount(), getFiredCount());
+    }
+
+    /**
+     * 监控当前线程的执行时长，超时后中断当前线程
+     * 执行结束后必须调用 {@link Watch#done()}
+     *
+     * @param timeout 超时时间
+     * @param unit    时间单位
+     * @return 监控句柄
+     */
+    public Watch watch(long timeout, TimeUnit unit) {
+        return newWatch(Thread.currentThread(), null, timeout, unit);
+    }
+
+    /**
+     * 监控当前线程的执行时长，超时后中断当前线程，并在看门狗线程中执行超时任务
+     * 执行结束后必须调用 {@link Watch#done()}，已超时时该调用等待超时任务执行完毕
+     *
+     * @param timeout     超时时间
+     * @param unit        时间单位
+     * @param timeoutTask 超时任务，应快速返回
+     * @return 监控句柄
+     */
+    public Watch watch(long timeout, TimeUnit unit, Runnable timeoutTask) {
+        return newWatch(Thread.currentThread(), timeoutTask, timeout, unit);
+    }
+
+    /**
+     * 监控异步执行的时长，超时后在看门狗线程中执行超时任务
+     * 执行结束后必须调用 {@link Watch#done()}
+     *
+     * @param timeout     超时时间
+     * @param unit        时间单位
+     * @param timeoutTask 超时任务，应快速返回
+     * @return 监控句柄
+     */
+    public Watch schedule(long timeout, TimeUnit unit, Runnable timeoutTask) {
+        return newWatch(null, timeoutTask, timeout, unit);
+    }
+
+    private Watch newWatch(Thread thread, Runnable timeoutTask, long timeout, TimeUnit unit) {
+        HashedWheelTimer wheelTimer = timer;
+        if (wheelTimer == null) {
+            start();
+            wheelTimer = timer;
+        }
+        Watch watch = new Watch(thread, timeoutTask);
+        watch.timeout = wheelTimer.newTimeout(watch, timeout, unit);
+        watchedCount.increment();
+        return watch;
+    }
+
+    /**
+     * 累计监控的触发数
+     *
+     * @return 监控次数
+     */
+    public long getWatchedCount() {
+        return watchedCount.sum();
+    }
+
+    /**
+     * 累计按时完成的触发数
+     *
+     * @return 按时完成次数
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * 累计超时的触发数
+     *
+     * @return 超时次数
+     */
+    public long getFiredCount() {
+        return firedCount.sum();
+    }
+
+    /**
+     * 当前等待到期的监控数
+     *
+     * @return 待到期数
+     */
+    public long getPendingCount() {
+        HashedWheelTimer wheelTimer = timer;
+        return wheelTimer != null ? wheelTimer.pendingTimeouts() : 0;
+    }
+
+    /**
+     * 监控句柄
+     */
+    public class Watch implements TimerTask {
+        private static final int RUNNING = 0;
+        private static final int DONE = 1;
+        private static final int TIMEOUT = 2;
+
+        private final Thread thread;
+        private final Runnable timeoutTask;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile Timeout timeout;
+
+        private Watch(Thread thread, Runnable timeoutTask) {
+            this.thread = thread;
+            this.timeoutTask = timeoutTask;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            // the state change, the interrupt and the timeout task all happen under the lock,
+            // so done() either wins before any of them or returns after all of them
+            synchronized (this) {
+                if (!state.compareAndSet(RUNNING, TIMEOUT)) {
+                    return;
+                }
+                firedCount.increment();
+                if (thread != null) {
+                    thread.interrupt();
+                }
+                if (timeoutTask != null) {
+                    try {
+                        timeoutTask.run();
+                    } catch (Throwable e) {
+                        log.error(">>>>>>>>>>> xxl-job, JobTimeoutWatchdog timeout task error.", e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 标记执行结束，取消超时监控
+         * 若已超时，等待超时任务执行完毕，并清除看门狗设置在当前线程上的中断标记
+         *
+         * @return true表示按时完成，false表示已超时
+         */
+        public boolean done() {
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+            synchronized (this) {
+                if (state.compareAndSet(RUNNING, DONE)) {
+                    completedCount.increment();
+                    return true;
+                }
+                if (thread != null && thread == Thread.currentThread()) {
+                    Thread.interrupted();
+                }
+                return false;
+            }
+        }
+
+        /**
+         * 是否已超时
+         *
+         * @return true表示已超时
+         */
+        public boolean isTimeout() {
+            return state.get() == TIMEOUT;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ccexid.core.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 作业共享工作线程池
+ * 共享线程池引擎下，各作业的触发邮箱由该固定大小的工作窃取线程池统一排空，线程数不再随作业数增长
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+@Slf4j
+public class JobWorkerPool implements IThread {
+
+    private static final JobWorkerPool INSTANCE = new JobWorkerPool();
+
+    public static JobWorkerPool getInstance() {
+        return INSTANCE;
+    }
+
+    private volatile ForkJoinPool workerPool;
+    private int poolSize;
+
+    /**
+     * 启动共享工作线程池
+     *
+     * @param poolSize 工作线程数，小于等于0时使用CPU核数
+     */
+    public void start(int poolSize) {
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        start();
+    }
+
+    @Override
+    public void start() {
+        if (workerPool != null) {
+            return;
+        }
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        // asyncMode: FIFO scheduling for event-style tasks that are never joined
+        workerPool = new ForkJoinPool(poolSize,
+                pool -> {
+                    ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    worker.setName("xxl-job, JobWorkerPool-" + worker.getPoolIndex());
+                    return worker;
+                },
+                (t, e) -> log.error(">>>>>>>>>>> xxl-job, JobWorkerPool uncaught exception, thread:{}", t.getName(), e),
+                true);
+        log.info(">>>>>>>>>>> xxl-job, JobWorkerPool start success, poolSize:{}", poolSize);
+    }
+
+    @Override
+    public void toStop() {
+        ForkJoinPool pool = workerPool;
+        if (pool == null) {
+            return;
+        }
+        workerPool = null;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info(">>>>>>>>>>> xxl-job, JobWorkerPool destroy.");
+    }
+
+    /**
+     * 是否已启动
+     *
+     * @return true表示启用了共享线程池引擎
+     */
+    public boolean isStarted() {
+        return workerPool != null;
+    }
+
+    /**
+     * 提交任务到共享工作线程池
+     *
+     * @param task 任务
+     * @throws RejectedExecutionException 线程池未启动或已停止
+     */
+    public void execute(Runnable task) {
+        ForkJoinPool pool = workerPool;
+        if (pool == null) {
+            throw new RejectedExecutionException("xxl-job, JobWorkerPool is not started.");
+        }
+        pool.execute(task);
+    }
+
+    /**
+     * 获取工作线程数
+     *
+     * @return 工作线程数，未启动时返回0
+     */
+    public int getPoolSize() {
+        ForkJoinPool pool = workerPool;
+        return pool != null ? pool.getPoolSize() : 0;
+    }
+
+    /**
+     * 获取正在执行任务的工作线程数
+     *
+     * @return 活跃线程数，未启动时返回0
+     */
+    public int getActiveCount() {
+        ForkJoinPool pool = workerPool;
+        return pool != null ? pool.getActiveThreadCount() : 0;
+    }
+
+    /**
+     * 获取等待执行的作业邮箱数
+     *
+     * @return 排队数，未启动时返回0
+     */
+    public long getQueuedCount() {
+        ForkJoinPool pool = workerPool;
+        return pool != null ? pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount() : 0;
+    }
+}
@@ -1,7 +1,6 @@
 package com.ccexid.core.thread;
 
 
-import com.ccexid.core.biz.AdminBiz;
 import com.ccexid.core.constant.RegisterConstant;
 import com.ccexid.core.context.JobPlusContext;
 import com.ccexid.core.context.JobPlusHelper;
@@ -9,26 +8,60 @@ import com.ccexid.core.executor.JobExecutor;
 import com.ccexid.core.log.JobLogFileAppender;
 import com.ccexid.core.model.HandleCallbackParam;
 import com.ccexid.core.model.ResponseEntity;
-import com.ccexid.core.util.FileUtil;
-import com.ccexid.core.util.JdkSerializeTool;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 触发回调线程类，负责处理任务执行结果的回调
+ * 排队的执行结果按数量、大小上限凑批（可等待凑批时长），批次交给少量回调线程并行发送；回调失败的批次写入WAL，由重试线程重试。
+ * 内存队列有容量上限，超出的执行结果写入回调日志目录下的溢出队列，内存队列取空后按顺序读回，回调完成后才在溢出队列中确认
  *
  * @author xuxueli 2016-07-22
  */
 @Slf4j
 public class TriggerCallbackThread implements IThread {
 
+    /**
+     * 单批最大回调数默认值
+     */
+    public static final int BATCH_SIZE_DEFAULT = 100;
+    /**
+     * 单批最大字节数默认值（按回调参数估算）
+     */
+    public static final long BATCH_MAX_BYTES_DEFAULT = 1024 * 1024;
+    /**
+     * 同时进行的回调请求数默认值
+     */
+    public static final int MAX_IN_FLIGHT_DEFAULT = 2;
+    /**
+     * 内存回调队列容量默认值
+     */
+    public static final int QUEUE_CAPACITY_DEFAULT = 10000;
+
+    /**
+     * 批次大小分布的桶上限，最后一个桶统计超出最大上限的批次
+     */
+    public static final int[] BATCH_SIZE_BUCKETS = {1, 10, 50, 100, 500, 1000};
+    /**
+     * 回调延迟（任务结束到调度中心确认）分布的桶上限（毫秒），最后一个桶统计超出最大上限的回调
+     */
+    public static final long[] LAG_BUCKETS_MILLIS = {10, 100, 1000, 10000, 60000};
+
     private static final TriggerCallbackThread INSTANCE = new TriggerCallbackThread();
 
     public static TriggerCallbackThread getInstance() {
@@ -36,15 +69,29 @@ public class TriggerCallbackThread implements IThread {
     }
 
     /**
-     * 任务结果回调队列
+     * 任务结果回调队列（内存）
      */
-    private final LinkedBlockingQueue<HandleCallbackParam> callBackQueue = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<PendingCallback> callBackQueue = new LinkedBlockingQueue<>();
 
     public static void pushCallBack(HandleCallbackParam callback) {
-        getInstance().callBackQueue.add(callback);
+        getInstance().push(new PendingCallback(callback, System.nanoTime()));
         log.debug(">>>>>>>>>>> xxl-job, push callback request, logId:{}", callback.getLogId());
     }
 
+    /**
+     * 入队；内存队列已满或溢出队列中仍有回调时写入溢出队列，保证按入队顺序回调
+     */
+    private void push(PendingCallback pendingCallback) {
+        if (queueCapacity > 0 && (spilling || callBackQueue.size() >= queueCapacity)) {
+            synchronized (spillLock) {
+                if ((spilling || callBackQueue.size() >= queueCapacity) && spill(pendingCallback)) {
+                    return;
+                }
+            }
+        }
+        callBackQueue.add(pendingCallback);
+    }
+
     /**
      * 回调线程
      */
@@ -52,34 +99,115 @@ public class TriggerCallbackThread implements IThread {
     private Thread triggerRetryCallbackThread;
     private volatile boolean toStop = false;
 
+    private int batchSize = BATCH_SIZE_DEFAULT;
+    private long batchMaxBytes = BATCH_MAX_BYTES_DEFAULT;
+    private long lingerNanos;
+    private Semaphore inFlight;
+    private ThreadPoolExecutor dispatchPool;
+
+    /**
+     * 内存队列容量，小于等于0时不限制
+     */
+    private volatile int queueCapacity;
+    /**
+     * 溢出队列中是否有回调，只在持有 spillLock 时修改
+     */
+    private volatile boolean spilling;
+    private final Object spillLock = new Object();
+    private CallbackWal spillWal;
+    /**
+     * 已从溢出队列读回、尚未按顺序确认的记录，只在持有 spillLock 时访问
+     */
+    private final ArrayDeque<SpilledRecord> spillInFlight = new ArrayDeque<>();
+
+    // metrics
+    private final LongAdder callbackCount = new LongAdder();
+    private final LongAdder retryCallbackCount = new LongAdder();
+    private final LongAdder failCallbackCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder[] batchSizeHistogram = newHistogram(BATCH_SIZE_BUCKETS.length + 1);
+    private final LongAdder[] lagHistogram = newHistogram(LAG_BUCKETS_MILLIS.length + 1);
+    private final LongAdder lagTotalMillis = new LongAdder();
+    private final AtomicLong lagMaxMillis = new AtomicLong();
+    private final LongAdder lagCount = new LongAdder();
+    private final LongAdder spillCount = new LongAdder();
+
     @Override
     public void start() {
+        start(BATCH_SIZE_DEFAULT, BATCH_MAX_BYTES_DEFAULT, 0, MAX_IN_FLIGHT_DEFAULT);
+    }
+
+    /**
+     * 启动回调线程
+     *
+     * @param batchSize     单批最大回调数，小于等于0时使用默认值
+     * @param batchMaxBytes 单批最大字节数（估算），小于等于0时使用默认值；单个回调超出时单独成批
+     * @param lingerMillis  凑批等待时长（毫秒），队列中回调不足一批时最多等待该时长，0表示只合并已排队的回调
+     * @param maxInFlight   同时进行的回调请求数，小于等于0时使用默认值
+     */
+    public void start(int batchSize, long batchMaxBytes, long lingerMillis, int maxInFlight) {
+        start(batchSize, batchMaxBytes, lingerMillis, maxInFlight, QUEUE_CAPACITY_DEFAULT);
+    }
+
+    /**
+     * 启动回调线程
+     *
+     * @param batchSize     单批最大回调数，小于等于0时使用默认值
+     * @param batchMaxBytes 单批最大字节数（估算），小于等于0时使用默认值；单个回调超出时单独成批
+     * @param lingerMillis  凑批等待时长（毫秒），队列中回调不足一批时最多等待该时长，0表示只合并已排队的回调
+     * @param maxInFlight   同时进行的回调请求数，小于等于0时使用默认值
+     * @param queueCapacity 内存回调队列容量，超出的回调写入回调日志目录下的溢出队列，小于等于0时不限制
+     */
+    public void start(int batchSize, long batchMaxBytes, long lingerMillis, int maxInFlight, int queueCapacity) {
 
         // valid
-        if (JobExecutor.getAdminBizList() == null) {
+        if (JobExecutor.getAdminBizRouter() == null) {
             log.warn(">>>>>>>>>>> xxl-job, executor callback config fail, adminAddresses is null.");
             return;
         }
 
+        this.batchSize = batchSize > 0 ? batchSize : BATCH_SIZE_DEFAULT;
+        this.batchMaxBytes = batchMaxBytes > 0 ? batchMaxBytes : BATCH_MAX_BYTES_DEFAULT;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(lingerMillis, 0));
+        int dispatchThreads = maxInFlight > 0 ? maxInFlight : MAX_IN_FLIGHT_DEFAULT;
+        inFlight = new Semaphore(dispatchThreads);
+        dispatchPool = new ThreadPoolExecutor(
+                dispatchThreads, dispatchThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "xxl-job, executor TriggerCallbackThread dispatch-" + r.hashCode()));
+
+        // fail-callback wal, migrates legacy fail-callback files
+        callbackWal();
+
+        // spill queue, callbacks left from the last run are sent first
+        this.queueCapacity = Math.max(queueCapacity, 0);
+        synchronized (spillLock) {
+            CallbackWal wal = spillWal();
+            if (wal != null && wal.pendingCount() > 0) {
+                log.info(">>>>>>>>>>> xxl-job, callback spill queue recovered {} callbacks.", wal.pendingCount());
+                spilling = true;
+            }
+        }
+
         // callback
         triggerCallbackThread = new Thread(() -> {
 
             // normal callback
+            PendingCallback next = null;
             while (!toStop) {
                 try {
-                    HandleCallbackParam callback = getInstance().callBackQueue.take();
-                    if (callback != null) {
-
-                        // callback list param
-                        List<HandleCallbackParam> callbackParamList = new ArrayList<>();
-                        getInstance().callBackQueue.drainTo(callbackParamList);
-                        callbackParamList.add(callback);
-
-                        // callback, will retry if error
-                        if (!callbackParamList.isEmpty()) {
-                            doCallback(callbackParamList);
-                        }
+                    PendingCallback first = next != null ? next : nextCallback();
+                    next = null;
+                    if (first == null) {
+                        continue;
                     }
+
+                    // callback list param
+                    List<PendingCallback> batch = new ArrayList<>();
+                    next = fillBatch(first, batch);
+
+                    // callback, will retry if error
+                    dispatch(batch);
                 } catch (Throwable e) {
                     if (!toStop) {
                         log.error(e.getMessage(), e);
@@ -89,11 +217,18 @@ public class TriggerCallbackThread implements IThread {
 
             // last callback
             try {
-                List<HandleCallbackParam> callbackParamList = new ArrayList<>();
-                getInstance().callBackQueue.drainTo(callbackParamList);
-                if (!callbackParamList.isEmpty()) {
-                    doCallback(callbackParamList);
+                // clear the interrupt from toStop, in-flight callbacks are waited for below
+                Thread.interrupted();
+                List<PendingCallback> remaining = new ArrayList<>();
+                if (next != null) {
+                    remaining.add(next);
+                }
+                getInstance().callBackQueue.drainTo(remaining);
+                for (int i = 0; i < remaining.size(); i += this.batchSize) {
+                    dispatch(remaining.subList(i, Math.min(i + this.batchSize, remaining.size())));
                 }
+                dispatchPool.shutdown();
+                dispatchPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
             } catch (Throwable e) {
                 if (!toStop) {
                     log.error(e.getMessage(), e);
@@ -111,7 +246,7 @@ public class TriggerCallbackThread implements IThread {
         triggerRetryCallbackThread = new Thread(() -> {
             while (!toStop) {
                 try {
-                    retryFailCallbackFile();
+                    retryFailCallbackWal();
                 } catch (Throwable e) {
                     if (!toStop) {
                         log.error(e.getMessage(), e);
@@ -163,33 +298,279 @@ public class TriggerCallbackThread implements IThread {
                 log.error(e.getMessage(), e);
             }
         }
+
+        synchronized (this) {
+            if (callbackWal != null) {
+                callbackWal.close();
+                callbackWal = null;
+            }
+        }
+        synchronized (spillLock) {
+            spillInFlight.clear();
+            if (spillWal != null) {
+                spillWal.close();
+                spillWal = null;
+            }
+        }
+    }
+
+    /**
+     * 取下一个回调：内存队列为空时从溢出队列补充，溢出队列中有回调时定时检查，避免新回调全部进入溢出队列后一直等待
+     *
+     * @return 回调，暂时没有时为null
+     */
+    private PendingCallback nextCallback() throws InterruptedException {
+        PendingCallback pendingCallback = callBackQueue.poll();
+        if (pendingCallback == null && spilling) {
+            refillFromSpill();
+            pendingCallback = callBackQueue.poll();
+        }
+        if (pendingCallback == null) {
+            pendingCallback = spilling ? callBackQueue.poll(100, TimeUnit.MILLISECONDS) : callBackQueue.take();
+        }
+        return pendingCallback;
+    }
+
+    /**
+     * 写入溢出队列，持有 spillLock 时调用；不等待刷盘，进程退出不丢失
+     *
+     * @return 是否写入成功，失败时调用方放入内存队列
+     */
+    private boolean spill(PendingCallback pendingCallback) {
+        CallbackWal wal = spillWal();
+        if (wal == null) {
+            return false;
+        }
+        try {
+            wal.append(Collections.singletonList(pendingCallback.param), false);
+            spilling = true;
+            spillCount.increment();
+            return true;
+        } catch (IOException e) {
+            log.error(">>>>>>>>>>> xxl-job, callback spill error, keep in memory, logId:{}", pendingCallback.param.getLogId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 内存队列为空时从溢出队列按顺序补充，最多补充半个队列容量；溢出队列读完后恢复直接进入内存队列。
+     * 读回的记录在回调完成后才确认（见 {@link #ackSpilled(List)}），进程在此之前退出时重新回调
+     */
+    private void refillFromSpill() {
+        synchronized (spillLock) {
+            if (!spilling) {
+                return;
+            }
+            CallbackWal wal = spillWal();
+            if (wal == null) {
+                spilling = false;
+                return;
+            }
+            int limit = Math.max(queueCapacity / 2, 1);
+            int refilled = 0;
+            try {
+                CallbackWal.Record record = null;
+                while (refilled < limit && (record = wal.next()) != null) {
+                    SpilledRecord spilled = new SpilledRecord(record);
+                    spillInFlight.addLast(spilled);
+                    for (HandleCallbackParam callbackParam : record.getCallbackParamList()) {
+                        // enqueue time was not kept on disk, left out of the lag metrics
+                        callBackQueue.add(new PendingCallback(callbackParam, -1, spilled));
+                        refilled++;
+                    }
+                }
+                if (record == null) {
+                    spilling = false;
+                }
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, callback spill read error.", e);
+            }
+        }
+    }
+
+    /**
+     * 回调完成（成功或已写入失败回调WAL）后确认读回的记录，按读回顺序确认到第一条未完成的记录为止
+     */
+    private void ackSpilled(List<PendingCallback> batch) {
+        boolean completed = false;
+        for (PendingCallback pendingCallback : batch) {
+            if (pendingCallback.spilled != null && pendingCallback.spilled.remaining.decrementAndGet() == 0) {
+                completed = true;
+            }
+        }
+        if (!completed) {
+            return;
+        }
+        synchronized (spillLock) {
+            if (spillWal == null) {
+                return;
+            }
+            try {
+                boolean acked = false;
+                while (!spillInFlight.isEmpty() && spillInFlight.peekFirst().remaining.get() == 0) {
+                    spillWal.ack(spillInFlight.pollFirst().record, false);
+                    acked = true;
+                }
+                if (acked) {
+                    spillWal.flushCursor();
+                }
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, callback spill ack error.", e);
+            }
+        }
+    }
+
+    /**
+     * 溢出队列，持有 spillLock 时调用，打开失败时下次重新打开
+     */
+    private CallbackWal spillWal() {
+        if (spillWal == null) {
+            File callbackLogPath = new File(JobLogFileAppender.getLogPath(), FAIL_CALLBACK_DIR_NAME);
+            try {
+                spillWal = CallbackWal.open(callbackLogPath, SPILL_WAL_NAME, false);
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, open callback spill queue error: {}", callbackLogPath.getPath(), e);
+            }
+        }
+        return spillWal;
+    }
+
+    /**
+     * 凑批：从队列取回调直到达到数量或字节上限，队列为空时最多等待凑批时长
+     *
+     * @param first 批次的第一个回调，无论大小都加入批次
+     * @param batch 批次
+     * @return 超出字节上限未加入批次的回调，作为下一批的第一个
+     */
+    private PendingCallback fillBatch(PendingCallback first, List<PendingCallback> batch) {
+        batch.add(first);
+        long bytes = estimateBytes(first.param);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            PendingCallback next = callBackQueue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || toStop) {
+                    break;
+                }
+                try {
+                    next = callBackQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    // stopping, send what is collected
+                    break;
+                }
+                if (next == null) {
+                    break;
+                }
+            }
+            long size = estimateBytes(next.param);
+            if (bytes + size > batchMaxBytes) {
+                return next;
+            }
+            batch.add(next);
+            bytes += size;
+        }
+        return null;
+    }
+
+    /**
+     * 提交批次，同时进行的回调请求达到上限时等待
+     */
+    private void dispatch(List<PendingCallback> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingCallback> pending = new ArrayList<>(batch);
+        inFlight.acquireUninterruptibly();
+        try {
+            dispatchPool.execute(() -> {
+                try {
+                    sendBatch(pending);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            sendBatch(pending);
+        }
+    }
+
+    /**
+     * 回调一个批次，失败时写入WAL，由重试线程重试
+     */
+    private void sendBatch(List<PendingCallback> batch) {
+        List<HandleCallbackParam> callbackParamList = new ArrayList<>(batch.size());
+        for (PendingCallback pendingCallback : batch) {
+            callbackParamList.add(pendingCallback.param);
+        }
+        batchCount.increment();
+        batchSizeHistogram[bucketOf(BATCH_SIZE_BUCKETS, batch.size())].increment();
+
+        if (!doCallback(callbackParamList)) {
+            failCallbackCount.add(batch.size());
+            if (appendFailCallbackWal(callbackParamList)) {
+                ackSpilled(batch);
+            } else if (batch.stream().anyMatch(pendingCallback -> pendingCallback.spilled != null)) {
+                // not acknowledged, the spill queue sends them again after restart
+                log.warn(">>>>>>>>>>> xxl-job, callback kept in spill queue until restart.");
+            }
+            return;
+        }
+        callbackCount.add(batch.size());
+        ackSpilled(batch);
+        long now = System.nanoTime();
+        for (PendingCallback pendingCallback : batch) {
+            if (pendingCallback.enqueueNanos < 0) {
+                continue;
+            }
+            long lagMillis = TimeUnit.NANOSECONDS.toMillis(now - pendingCallback.enqueueNanos);
+            lagCount.increment();
+            lagHistogram[bucketOf(LAG_BUCKETS_MILLIS, lagMillis)].increment();
+            lagTotalMillis.add(lagMillis);
+            lagMaxMillis.accumulateAndGet(lagMillis, Math::max);
+        }
     }
 
     /**
-     * 执行回调，如果出错会重试
+     * 估算回调参数的请求体字节数
+     */
+    private static long estimateBytes(HandleCallbackParam param) {
+        long bytes = 64;
+        String handleMsg = param.getHandleMsg();
+        if (handleMsg != null) {
+            for (int i = 0, n = handleMsg.length(); i < n; i++) {
+                bytes += handleMsg.charAt(i) < 0x80 ? 1 : 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 回调调度中心，按健康状况依次尝试，远程调用失败时转向下一个地址
      *
      * @param callbackParamList 回调参数列表
+     * @return 是否回调成功
      */
-    private void doCallback(List<HandleCallbackParam> callbackParamList) {
-        boolean callbackRet = false;
+    private boolean doCallback(List<HandleCallbackParam> callbackParamList) {
         // callback, will retry if error
-        for (AdminBiz adminBiz : JobExecutor.getAdminBizList()) {
+        ResponseEntity<String> callbackResult = JobExecutor.getAdminBizRouter().invoke(adminBiz -> {
             try {
-                ResponseEntity<String> callbackResult = adminBiz.callback(callbackParamList);
-                if (callbackResult != null && ResponseEntity.isSuccess(callbackResult)) {
-                    callbackLog(callbackParamList, "<br>----------- xxl-job job callback finish.");
-                    callbackRet = true;
-                    break;
-                } else {
-                    callbackLog(callbackParamList, "<br>----------- xxl-job job callback fail, callbackResult:" + callbackResult);
+                ResponseEntity<String> result = adminBiz.callback(callbackParamList);
+                if (result == null || !ResponseEntity.isSuccess(result)) {
+                    callbackLog(callbackParamList, "<br>----------- xxl-job job callback fail, callbackResult:" + result);
                 }
-            } catch (Throwable e) {
+                return result;
+            } catch (RuntimeException e) {
                 callbackLog(callbackParamList, "<br>----------- xxl-job job callback error, errorMsg:" + e.getMessage());
+                throw e;
             }
+        });
+        if (ResponseEntity.isSuccess(callbackResult)) {
+            callbackLog(callbackParamList, "<br>----------- xxl-job job callback finish.");
+            return true;
         }
-        if (!callbackRet) {
-            appendFailCallbackFile(callbackParamList);
-        }
+        return false;
     }
 
     /**
@@ -212,71 +593,242 @@ public class TriggerCallbackThread implements IThread {
     }
 
 
-    // ---------------------- fail-callback file ----------------------
+    // ---------------------- fail-callback wal ----------------------
 
-    private static final String FAIL_CALLBACK_FILE_PATH = JobLogFileAppender.getLogPath().concat(File.separator).concat("callback-log").concat(File.separator);
-    private static final String FAIL_CALLBACK_FILE_NAME = FAIL_CALLBACK_FILE_PATH.concat("xxl-job-callback-{x}").concat(".log");
+    static final String FAIL_CALLBACK_DIR_NAME = "callback-log";
+    /**
+     * 回调队列溢出使用的WAL名称，与失败回调WAL位于同一目录
+     */
+    private static final String SPILL_WAL_NAME = "spill";
 
-    private void appendFailCallbackFile(List<HandleCallbackParam> callbackParamList) {
+    /**
+     * 失败回调WAL，打开失败时在下次写入或重试时重新打开
+     */
+    private volatile CallbackWal callbackWal;
+
+    private synchronized CallbackWal callbackWal() {
+        if (callbackWal == null) {
+            File callbackLogPath = new File(JobLogFileAppender.getLogPath(), FAIL_CALLBACK_DIR_NAME);
+            try {
+                callbackWal = CallbackWal.open(callbackLogPath);
+            } catch (IOException e) {
+                log.error(">>>>>>>>>>> xxl-job, open callback wal error: {}", callbackLogPath.getPath(), e);
+            }
+        }
+        return callbackWal;
+    }
+
+    /**
+     * 写入失败回调WAL
+     *
+     * @return 是否写入成功
+     */
+    private boolean appendFailCallbackWal(List<HandleCallbackParam> callbackParamList) {
         // valid
         if (callbackParamList == null || callbackParamList.isEmpty()) {
-            return;
+            return true;
         }
 
-        // append file
-        byte[] callbackParamListBytes = JdkSerializeTool.serialize(callbackParamList);
-
-        File callbackLogFile = new File(FAIL_CALLBACK_FILE_NAME.replace("{x}", String.valueOf(System.currentTimeMillis())));
-        if (callbackLogFile.exists()) {
-            for (int i = 0; i < 100; i++) {
-                callbackLogFile = new File(FAIL_CALLBACK_FILE_NAME.replace("{x}", String.valueOf(System.currentTimeMillis()).concat("-").concat(String.valueOf(i))));
-                if (!callbackLogFile.exists()) {
-                    break;
-                }
+        CallbackWal wal = callbackWal();
+        try {
+            if (wal == null) {
+                throw new IOException("callback wal not available");
             }
+            wal.append(callbackParamList);
+            return true;
+        } catch (IOException e) {
+            log.error(">>>>>>>>>>> xxl-job, append callback wal error, {} callbacks lost.", callbackParamList.size(), e);
+            return false;
         }
-        FileUtil.writeFileContent(callbackLogFile, callbackParamListBytes);
     }
 
-    private void retryFailCallbackFile() {
-
-        // valid
-        File callbackLogPath = new File(FAIL_CALLBACK_FILE_PATH);
-        if (!callbackLogPath.exists()) {
+    /**
+     * 从确认游标处逐条重试，遇到失败时停止，等待下一轮
+     */
+    private void retryFailCallbackWal() throws IOException {
+        CallbackWal wal = callbackWal();
+        if (wal == null) {
             return;
         }
-        if (callbackLogPath.isFile()) {
-            //noinspection ResultOfMethodCallIgnored
-            callbackLogPath.delete();
+        CallbackWal.Record record;
+        while (!toStop && (record = wal.peek()) != null) {
+            if (!doCallback(record.getCallbackParamList())) {
+                return;
+            }
+            retryCallbackCount.add(record.getCallbackParamList().size());
+            wal.ack(record);
         }
-        if (!(callbackLogPath.isDirectory() && callbackLogPath.list() != null && Objects.requireNonNull(callbackLogPath.list()).length > 0)) {
-            return;
+    }
+
+    // ---------------------- metrics ----------------------
+
+    /**
+     * 累计回调成功数（不含失败后重试成功的回调）
+     *
+     * @return 回调成功数
+     */
+    public long getCallbackCount() {
+        return callbackCount.sum();
+    }
+
+    /**
+     * 累计失败后重试成功的回调数
+     *
+     * @return 重试成功数
+     */
+    public long getRetryCallbackCount() {
+        return retryCallbackCount.sum();
+    }
+
+    /**
+     * 累计回调失败并写入WAL的回调数
+     *
+     * @return 回调失败数
+     */
+    public long getFailCallbackCount() {
+        return failCallbackCount.sum();
+    }
+
+    /**
+     * 累计发送的批次数
+     *
+     * @return 批次数
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * 批次大小分布，第 i 个值为大小不超过 {@link #BATCH_SIZE_BUCKETS}[i]（且超过前一个桶上限）的批次数，最后一个值为超出最大上限的批次数
+     *
+     * @return 各桶批次数
+     */
+    public long[] getBatchSizeHistogram() {
+        return snapshot(batchSizeHistogram);
+    }
+
+    /**
+     * 回调延迟（任务结束到调度中心确认）分布，桶上限为 {@link #LAG_BUCKETS_MILLIS}，最后一个值为超出最大上限的回调数
+     *
+     * @return 各桶回调数
+     */
+    public long[] getCallbackLagHistogram() {
+        return snapshot(lagHistogram);
+    }
+
+    /**
+     * 平均回调延迟（毫秒）
+     *
+     * @return 平均延迟，尚无回调时为0
+     */
+    public long getCallbackLagAvgMillis() {
+        long count = lagCount.sum();
+        return count > 0 ? lagTotalMillis.sum() / count : 0;
+    }
+
+    /**
+     * 最大回调延迟（毫秒）
+     *
+     * @return 最大延迟
+     */
+    public long getCallbackLagMaxMillis() {
+        return lagMaxMillis.get();
+    }
+
+    /**
+     * 内存队列中等待回调的数量
+     *
+     * @return 排队数
+     */
+    public int getQueuedCount() {
+        return callBackQueue.size();
+    }
+
+    /**
+     * 溢出队列（磁盘）中尚未确认的回调数量，包括已读回内存、回调尚未完成的回调
+     *
+     * @return 排队数
+     */
+    public long getSpillQueuedCount() {
+        synchronized (spillLock) {
+            return spillWal != null ? spillWal.pendingCount() : 0;
         }
+    }
 
-        // load and clear file, retry
-        File[] files = callbackLogPath.listFiles();
-        if (files == null) {
-            return;
+    /**
+     * 累计写入溢出队列的回调数
+     *
+     * @return 溢出数
+     */
+    public long getSpillCount() {
+        return spillCount.sum();
+    }
+
+    private static LongAdder[] newHistogram(int buckets) {
+        LongAdder[] histogram = new LongAdder[buckets];
+        for (int i = 0; i < buckets; i++) {
+            histogram[i] = new LongAdder();
+        }
+        return histogram;
+    }
+
+    private static long[] snapshot(LongAdder[] histogram) {
+        long[] counts = new long[histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            counts[i] = histogram[i].sum();
         }
+        return counts;
+    }
 
-        for (File callbackLogFile : files) {
-            byte[] callbackParamListBytes = FileUtil.readFileContent(callbackLogFile);
+    private static int bucketOf(int[] bounds, int value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        return i;
+    }
 
-            // avoid empty file
-            if (callbackParamListBytes == null || callbackParamListBytes.length < 1) {
-                //noinspection ResultOfMethodCallIgnored
-                callbackLogFile.delete();
-                continue;
-            }
+    private static int bucketOf(long[] bounds, long value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        return i;
+    }
 
-            @SuppressWarnings("unchecked")
-            List<HandleCallbackParam> callbackParamList = (List<HandleCallbackParam>) JdkSerializeTool.deserialize(callbackParamListBytes, List.class);
+    /**
+     * 排队中的回调及入队时间（任务结束时间）
+     */
+    private static final class PendingCallback {
+        private final HandleCallbackParam param;
+        private final long enqueueNanos;
+        /**
+         * 从溢出队列读回时所属的记录，否则为null
+         */
+        private final SpilledRecord spilled;
+
+        private PendingCallback(HandleCallbackParam param, long enqueueNanos) {
+            this(param, enqueueNanos, null);
+        }
 
-            //noinspection ResultOfMethodCallIgnored
-            callbackLogFile.delete();
-            doCallback(callbackParamList);
+        private PendingCallback(HandleCallbackParam param, long enqueueNanos, SpilledRecord spilled) {
+            this.param = param;
+            this.enqueueNanos = enqueueNanos;
+            this.spilled = spilled;
         }
+    }
 
+    /**
+     * 从溢出队列读回的记录及其中尚未回调完成的回调数
+     */
+    private static final class SpilledRecord {
+        private final CallbackWal.Record record;
+        private final AtomicInteger remaining;
+
+        private SpilledRecord(CallbackWal.Record record) {
+            this.record = record;
+            this.remaining = new AtomicInteger(record.getCallbackParamList().size());
+        }
     }
 
 }
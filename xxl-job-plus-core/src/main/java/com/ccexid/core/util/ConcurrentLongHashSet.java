@@ -0,0 +1,291 @@
+package com.ccexid.core.util;
+
+import java.util.Arrays;
+
+/**
+ * 基本类型 long 的并发哈希集合
+ * <p>
+ * 元素以 long 原样存放在开放寻址（线性探测）的数组中，不装箱；集合按哈希划分为多个段，
+ * 每个段以自身为锁，操作只锁所在段。段内操作只有几次数组访问，持锁时间极短，使用对象监视器比 StampedLock 开销更小
+ * <p>
+ * {@link Long#MIN_VALUE} 与 {@code Long.MIN_VALUE + 1} 被用作空槽及删除标记，不能作为元素。
+ * <p>
+ * 与此前的 Collections.synchronizedSet(HashSet&lt;Long&gt;) 相比（ConcurrentLongHashSetBenchmark，一次 contains + add + remove），
+ * 主要收益是分配：每次操作由 104 字节（Long 装箱与 HashMap.Node）降为约 2 字节（删除标记累积后的段重建，均摊）；
+ * 单核环境下 1/4/16 线程的吞吐量与之持平（约 8-10 ops/us，在误差范围内），多核下分段锁可减少锁竞争，但尚未实测。
+ *
+ * @author ccexid
+ * @since 1.0.0
+ */
+public class ConcurrentLongHashSet {
+
+    private static final long EMPTY_ITEM = Long.MIN_VALUE;
+    private static final long DELETED_ITEM = Long.MIN_VALUE + 1;
+
+    private static final float FILL_FACTOR = 0.66f;
+    private static final int MIN_SECTION_CAPACITY = 8;
+
+    private final Section[] sections;
+
+    public ConcurrentLongHashSet() {
+        this(16, 4);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param expectedItems    预期元素数
+     * @param concurrencyLevel 并发度，即段数，向上取整为2的幂
+     */
+    public ConcurrentLongHashSet(int expectedItems, int concurrencyLevel) {
+        if (expectedItems < 0) {
+            throw new IllegalArgumentException("expectedItems must be >= 0");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be > 0");
+        }
+        int numSections = tableSizeFor(concurrencyLevel);
+        int perSectionCapacity = tableSizeFor(Math.max((int) (expectedItems / numSections / FILL_FACTOR) + 1, MIN_SECTION_CAPACITY));
+        this.sections = new Section[numSections];
+        for (int i = 0; i < numSections; i++) {
+            sections[i] = new Section(perSectionCapacity);
+        }
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param item 元素
+     * @return true表示添加成功，false表示元素已存在
+     */
+    public boolean add(long item) {
+        checkItem(item);
+        long h = hash(item);
+        return getSection(h).add(item, (int) h);
+    }
+
+    /**
+     * 是否包含元素
+     *
+     * @param item 元素
+     * @return true表示包含
+     */
+    public boolean contains(long item) {
+        checkItem(item);
+        long h = hash(item);
+        return getSection(h).contains(item, (int) h);
+    }
+
+    /**
+     * 删除元素
+     *
+     * @param item 元素
+     * @return true表示删除成功，false表示元素不存在
+     */
+    public boolean remove(long item) {
+        checkItem(item);
+        long h = hash(item);
+        return getSection(h).remove(item, (int) h);
+    }
+
+    /**
+     * 元素个数，并发修改时为近似值
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        int size = 0;
+        for (Section section : sections) {
+            size += section.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Section section : sections) {
+            if (section.size() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清空集合
+     */
+    public void clear() {
+        for (Section section : sections) {
+            section.clear();
+        }
+    }
+
+    private Section getSection(long hash) {
+        // high bits pick the section, low bits pick the bucket
+        return sections[(int) (hash >>> 32) & (sections.length - 1)];
+    }
+
+    private static void checkItem(long item) {
+        if (item == EMPTY_ITEM || item == DELETED_ITEM) {
+            throw new IllegalArgumentException("item is reserved: " + item);
+        }
+    }
+
+    /**
+     * MurmurHash3 64位混淆函数
+     */
+    private static long hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * 集合的一个段，本身即为该段的锁
+     */
+    private static final class Section {
+        private long[] table;
+        private int size;
+        // live items + deleted markers
+        private int usedBuckets;
+        private int resizeThreshold;
+
+        Section(int capacity) {
+            this.table = newTable(capacity);
+            this.resizeThreshold = (int) (capacity * FILL_FACTOR);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized boolean contains(long item, int hash) {
+            return probe(table, item, hash);
+        }
+
+        synchronized boolean add(long item, int hash) {
+            long[] tab = table;
+            int mask = tab.length - 1;
+            int bucket = hash & mask;
+            int firstDeleted = -1;
+            while (true) {
+                long storedItem = tab[bucket];
+                if (storedItem == item) {
+                    return false;
+                }
+                if (storedItem == EMPTY_ITEM) {
+                    // reuse a deleted slot on the probe path if there is one
+                    if (firstDeleted != -1) {
+                        bucket = firstDeleted;
+                    } else {
+                        usedBuckets++;
+                    }
+                    tab[bucket] = item;
+                    size++;
+                    if (usedBuckets > resizeThreshold) {
+                        rehash();
+                    }
+                    return true;
+                }
+                if (storedItem == DELETED_ITEM && firstDeleted == -1) {
+                    firstDeleted = bucket;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+        }
+
+        synchronized boolean remove(long item, int hash) {
+            long[] tab = table;
+            int mask = tab.length - 1;
+            int bucket = hash & mask;
+            while (true) {
+                long storedItem = tab[bucket];
+                if (storedItem == item) {
+                    size--;
+                    if (tab[(bucket + 1) & mask] == EMPTY_ITEM) {
+                        // end of a probe chain, free this slot and any deleted markers before it
+                        tab[bucket] = EMPTY_ITEM;
+                        usedBuckets--;
+                        int prev = (bucket - 1) & mask;
+                        while (tab[prev] == DELETED_ITEM) {
+                            tab[prev] = EMPTY_ITEM;
+                            usedBuckets--;
+                            prev = (prev - 1) & mask;
+                        }
+                    } else {
+                        tab[bucket] = DELETED_ITEM;
+                    }
+                    return true;
+                }
+                if (storedItem == EMPTY_ITEM) {
+                    return false;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, EMPTY_ITEM);
+            size = 0;
+            usedBuckets = 0;
+        }
+
+        /**
+         * 重建哈希表，清理删除标记，必要时扩容；调用方需持有段锁
+         */
+        private void rehash() {
+            long[] oldTable = table;
+            int capacity = oldTable.length;
+            // grow only when live items need it, otherwise just purge deleted markers
+            int newCapacity = size > capacity * FILL_FACTOR / 2 ? capacity * 2 : capacity;
+            long[] newTable = newTable(newCapacity);
+            int mask = newCapacity - 1;
+            for (long storedItem : oldTable) {
+                if (storedItem != EMPTY_ITEM && storedItem != DELETED_ITEM) {
+                    int bucket = (int) hash(storedItem) & mask;
+                    while (newTable[bucket] != EMPTY_ITEM) {
+                        bucket = (bucket + 1) & mask;
+                    }
+                    newTable[bucket] = storedItem;
+                }
+            }
+            table = newTable;
+            usedBuckets = size;
+            resizeThreshold = (int) (newCapacity * FILL_FACTOR);
+        }
+
+        private static boolean probe(long[] tab, long item, int hash) {
+            int mask = tab.length - 1;
+            int bucket = hash & mask;
+            // bounded by the table length
+            for (int i = 0; i < tab.length; i++) {
+                long storedItem = tab[bucket];
+                if (storedItem == item) {
+                    return true;
+                }
+                if (storedItem == EMPTY_ITEM) {
+                    return false;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            return false;
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] tab = new long[capacity];
+            Arrays.fill(tab, EMPTY_ITEM);
+            return tab;
+        }
+    }
+}
@@ -41,6 +41,17 @@ public class GsonTool {
         return GSON.fromJson(json, classOfT);
     }
 
+    /**
+     * json 转成 特定泛型类型的Object
+     *
+     * @param json json string
+     * @param typeOfT target type, e.g. Map&lt;String, Object&gt;
+     * @return target object
+     */
+    public static <T> T fromJson(String json, Type typeOfT) {
+        return GSON.fromJson(json, typeOfT);
+    }
+
     /**
      * json 转成 特定的 rawClass<classOfT> 的Object
      *
@@ -1,6 +1,7 @@
 package com.ccexid.core.util;
 
 import com.ccexid.core.context.JobPlusHelper;
+import com.ccexid.core.log.JobLogFileAppender;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -52,68 +53,80 @@ public class ScriptUtil {
      * @throws IOException 如果在执行过程中发生IO异常
      */
     public static int execToFile(String command, String scriptFile, String logFile, String... params) throws IOException {
+        // 使用try-with-resources确保日志文件输出流正确关闭，输出经日志存储写入并计入日志预算
+        try (OutputStream logOutputStream = JobLogFileAppender.openAppender(logFile)) {
+            return execToStream(command, scriptFile, logOutputStream, params);
+        }
+    }
 
-        // 使用try-with-resources确保日志文件输出流正确关闭
-        try (FileOutputStream fileOutputStream = new FileOutputStream(logFile, true)) {
-
-            // 构建完整的命令行参数数组
-            List<String> cmdArray = new ArrayList<>();
-            cmdArray.add(command);
-            cmdArray.add(scriptFile);
-            if (ArrayUtils.isNotEmpty(params)) {
-                // 将可变参数添加到命令列表中
-                cmdArray.addAll(Arrays.asList(params));
-            }
-            String[] cmdArrayFinal = cmdArray.toArray(new String[0]);
-
-            // 启动进程执行命令
-            final Process process = Runtime.getRuntime().exec(cmdArrayFinal);
+    /**
+     * 执行指定的脚本命令，并将标准输出和错误输出实时写入到指定输出流中（输出流由调用方关闭）。
+     *
+     * @param command          要执行的命令（如：bash、python等）
+     * @param scriptFile       脚本文件路径
+     * @param outputStream     日志输出流，标准输出与错误输出会并发写入
+     * @param params           传递给脚本的可变参数列表
+     * @return 脚本执行的退出码，0 表示成功，非 0 表示失败，-1 表示执行过程中发生异常
+     * @throws IOException 如果在执行过程中发生IO异常
+     */
+    public static int execToStream(String command, String scriptFile, OutputStream outputStream, String... params) throws IOException {
+        // 构建完整的命令行参数数组
+        List<String> cmdArray = new ArrayList<>();
+        cmdArray.add(command);
+        cmdArray.add(scriptFile);
+        if (ArrayUtils.isNotEmpty(params)) {
+            // 将可变参数添加到命令列表中
+            cmdArray.addAll(Arrays.asList(params));
+        }
+        String[] cmdArrayFinal = cmdArray.toArray(new String[0]);
 
-            // 创建线程池用于异步读取标准输出和错误输出
-            ExecutorService executor = Executors.newFixedThreadPool(2);
+        // 启动进程执行命令
+        final Process process = Runtime.getRuntime().exec(cmdArrayFinal);
 
-            // 提交标准输出处理任务：将进程的标准输出内容写入日志文件
-            Future<?> inputFuture = executor.submit(() -> {
-                try {
-                    copy(process.getInputStream(), fileOutputStream);
-                } catch (IOException e) {
-                    JobPlusHelper.log(e);
-                }
-            });
-
-            // 提交错误输出处理任务：将进程的错误输出内容写入日志文件
-            Future<?> errorFuture = executor.submit(() -> {
-                try {
-                    copy(process.getErrorStream(), fileOutputStream);
-                } catch (IOException e) {
-                    JobPlusHelper.log(e);
-                }
-            });
+        // 创建线程池用于异步读取标准输出和错误输出
+        ExecutorService executor = Executors.newFixedThreadPool(2);
 
+        // 提交标准输出处理任务：将进程的标准输出内容写入日志文件
+        Future<?> inputFuture = executor.submit(() -> {
             try {
-                // 等待脚本执行完成并获取退出码
-                int exitValue = process.waitFor();      // exit code: 0=success, 1=error
-
-                // 等待日志写入线程完成，最多等待5秒
-                inputFuture.get(5, TimeUnit.SECONDS);
-                errorFuture.get(5, TimeUnit.SECONDS);
+                copy(process.getInputStream(), outputStream);
+            } catch (IOException e) {
+                JobPlusHelper.log(e);
+            }
+        });
 
-                return exitValue;
-            } catch (Exception e) {
-                // 记录执行过程中的异常信息
+        // 提交错误输出处理任务：将进程的错误输出内容写入日志文件
+        Future<?> errorFuture = executor.submit(() -> {
+            try {
+                copy(process.getErrorStream(), outputStream);
+            } catch (IOException e) {
                 JobPlusHelper.log(e);
-                return -1;
-            } finally {
-                // 关闭线程池并等待任务完成
-                executor.shutdown();
-                try {
-                    if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                        executor.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
+            }
+        });
+
+        try {
+            // 等待脚本执行完成并获取退出码
+            int exitValue = process.waitFor();      // exit code: 0=success, 1=error
+
+            // 等待日志写入线程完成，最多等待5秒
+            inputFuture.get(5, TimeUnit.SECONDS);
+            errorFuture.get(5, TimeUnit.SECONDS);
+
+            return exitValue;
+        } catch (Exception e) {
+            // 记录执行过程中的异常信息
+            JobPlusHelper.log(e);
+            return -1;
+        } finally {
+            // 关闭线程池并等待任务完成
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
                     executor.shutdownNow();
-                    Thread.currentThread().interrupt();
                 }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
     }
@@ -10,6 +10,7 @@ import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
@@ -60,8 +61,23 @@ public class XxlJobRemotingUtil {
     // trust-https end
 
 
+    /**
+     * 是否为调用过程本身的失败（超时、连接异常、HTTP状态码异常或响应内容无法解析），而非对端返回的业务失败
+     *
+     * @param responseEntity 响应结果
+     * @return true表示远程调用失败
+     */
+    public static boolean isRemotingError(ResponseEntity<?> responseEntity) {
+        int code = responseEntity.getCode();
+        return code == ResponseCode.GATEWAY_TIMEOUT.getCode()
+                || code == ResponseCode.SERVICE_UNAVAILABLE.getCode()
+                || code == ResponseCode.BAD_GATEWAY.getCode();
+    }
+
     /**
      * 发送POST请求，支持HTTPS协议，携带JSON格式请求体
+     * 调用失败时的响应码：超时为 {@link ResponseCode#GATEWAY_TIMEOUT}，连接及读写异常为 {@link ResponseCode#SERVICE_UNAVAILABLE}，
+     * HTTP状态码异常或响应内容无法解析为 {@link ResponseCode#BAD_GATEWAY}，见 {@link #isRemotingError(ResponseEntity)}
      *
      * @param url                请求地址
      * @param accessToken        访问令牌，用于身份验证
@@ -117,7 +133,7 @@ public class XxlJobRemotingUtil {
             // valid StatusCode
             int statusCode = connection.getResponseCode();
             if (statusCode != 200) {
-                return ResponseEntity.of(ResponseCode.FAIL.getCode(), "xxl-job remoting fail, StatusCode(" + statusCode + ") invalid. for url : " + url, null);
+                return ResponseEntity.of(ResponseCode.BAD_GATEWAY.getCode(), "xxl-job remoting fail, StatusCode(" + statusCode + ") invalid. for url : " + url, null);
             }
 
             // result
@@ -134,12 +150,15 @@ public class XxlJobRemotingUtil {
                 return GsonTool.fromJson(resultJson, ResponseEntity.class, returnTargClassOfT);
             } catch (Exception e) {
                 log.error("xxl-job remoting (url={}) response content invalid({}).", url, resultJson, e);
-                return ResponseEntity.of(ResponseCode.FAIL.getCode(), "xxl-job remoting (url=" + url + ") response content invalid(" + resultJson + ").", null);
+                return ResponseEntity.of(ResponseCode.BAD_GATEWAY.getCode(), "xxl-job remoting (url=" + url + ") response content invalid(" + resultJson + ").", null);
             }
 
+        } catch (SocketTimeoutException e) {
+            log.error(e.getMessage(), e);
+            return ResponseEntity.of(ResponseCode.GATEWAY_TIMEOUT.getCode(), "xxl-job remoting timeout(" + e.getMessage() + "), for url : " + url, null);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
-            return ResponseEntity.of(ResponseCode.FAIL.getCode(), "xxl-job remoting error(" + e.getMessage() + "), for url : " + url, null);
+            return ResponseEntity.of(ResponseCode.SERVICE_UNAVAILABLE.getCode(), "xxl-job remoting error(" + e.getMessage() + "), for url : " + url, null);
         } finally {
             try {
                 if (bufferedReader != null) {